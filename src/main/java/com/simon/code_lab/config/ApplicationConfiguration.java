@@ -1,5 +1,6 @@
 package com.simon.code_lab.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,8 +17,12 @@ import com.simon.code_lab.repository.UserRepository;
 public class ApplicationConfiguration {
     private final UserRepository userRepository;
 
-    public ApplicationConfiguration(UserRepository userRepository) {
+    private final int bcryptStrength;
+
+    public ApplicationConfiguration(UserRepository userRepository,
+            @Value("${security.password.bcrypt-strength:10}") int bcryptStrength) {
         this.userRepository = userRepository;
+        this.bcryptStrength = bcryptStrength;
     }
 
     @Bean
@@ -28,7 +33,7 @@ public class ApplicationConfiguration {
 
     @Bean
     BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -3,7 +3,8 @@ package com.simon.code_lab.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.util.Properties;
 
@@ -11,6 +12,30 @@ import org.springframework.beans.factory.annotation.Value;
 
 @Configuration
 public class EmailConfiguration {
+    @Value("${spring.mail.host:smtp.gmail.com}")
+    private String emailHost;
+
+    @Value("${spring.mail.port:587}")
+    private int emailPort;
+
+    @Value("${spring.mail.properties.mail.smtp.starttls.enable:true}")
+    private boolean startTls;
+
+    @Value("${spring.mail.properties.mail.debug:false}")
+    private boolean debug;
+
+    @Value("${mail.smtp.pool.max-idle:4}")
+    private int poolMaxIdle;
+
+    @Value("${mail.smtp.pool.idle-timeout:30000}")
+    private long poolIdleTimeout;
+
+    @Value("${mail.smtp.connection-timeout:5000}")
+    private int connectionTimeout;
+
+    @Value("${mail.smtp.timeout:10000}")
+    private int timeout;
+
     @Value("${spring.mail.username}")
     private String emailUsername;
 
@@ -18,18 +43,21 @@ public class EmailConfiguration {
     private String emailPassword;
 
     @Bean
-    public JavaMailSender javaMailSender() {
-        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
-        mailSender.setHost("smtp.gmail.com");
-        mailSender.setPort(587);
+    public JavaMailSender javaMailSender(MeterRegistry meterRegistry) {
+        KeepAliveJavaMailSender mailSender = new KeepAliveJavaMailSender(meterRegistry, poolMaxIdle,
+                poolIdleTimeout);
+        mailSender.setHost(emailHost);
+        mailSender.setPort(emailPort);
         mailSender.setUsername(emailUsername);
         mailSender.setPassword(emailPassword);
 
         Properties props = mailSender.getJavaMailProperties();
         props.put("mail.transport.protocol", "smtp");
         props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
-        props.put("mail.debug", "true");
+        props.put("mail.smtp.starttls.enable", String.valueOf(startTls));
+        props.put("mail.smtp.connectiontimeout", String.valueOf(connectionTimeout));
+        props.put("mail.smtp.timeout", String.valueOf(timeout));
+        props.put("mail.debug", String.valueOf(debug));
 
         return mailSender;
     }
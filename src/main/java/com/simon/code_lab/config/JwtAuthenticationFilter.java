@@ -2,6 +2,7 @@ package com.simon.code_lab.config;
 
 import java.io.IOException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -13,7 +14,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
+import com.simon.code_lab.model.User;
 import com.simon.code_lab.service.JwtService;
+import com.simon.code_lab.service.TokenVersionService;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -28,11 +31,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
 
+    private final TokenVersionService tokenVersionService;
+
+    private final boolean claimsOnly;
+
     public JwtAuthenticationFilter(HandlerExceptionResolver handlerExceptionResolver, JwtService jwtService,
-            UserDetailsService userDetailsService) {
+            UserDetailsService userDetailsService, TokenVersionService tokenVersionService,
+            @Value("${security.jwt.claims-only:false}") boolean claimsOnly) {
         this.handlerExceptionResolver = handlerExceptionResolver;
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenVersionService = tokenVersionService;
+        this.claimsOnly = claimsOnly;
     }
 
     @Override
@@ -54,9 +64,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
             if (username != null && authentication == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = loadUserDetails(jwt, username);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (userDetails != null && jwtService.isTokenValid(jwt, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -72,4 +82,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             handlerExceptionResolver.resolveException(request, response, null, e);
         }
     }
+
+    private UserDetails loadUserDetails(String jwt, String username) {
+        if (claimsOnly) {
+            User user = jwtService.extractUser(jwt);
+            if (user != null) {
+                return tokenVersionService.isCurrent(user.getId(), user.getTokenVersion()) ? user : null;
+            }
+        }
+        return userDetailsService.loadUserByUsername(username);
+    }
 }
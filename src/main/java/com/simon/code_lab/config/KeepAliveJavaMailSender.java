@@ -0,0 +1,165 @@
+package com.simon.code_lab.config;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+// Keeps authenticated SMTP connections open between sends instead of reconnecting for every message.
+public class KeepAliveJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+    private final BlockingDeque<PooledTransport> idleTransports;
+
+    private final long idleTimeoutNanos;
+
+    private final Counter opened;
+
+    private final Counter reused;
+
+    private final Timer sendTimer;
+
+    public KeepAliveJavaMailSender(MeterRegistry meterRegistry, int maxIdle, long idleTimeoutMillis) {
+        this.idleTransports = new LinkedBlockingDeque<>(maxIdle);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.opened = Counter.builder("mail.smtp.connections.opened").register(meterRegistry);
+        this.reused = Counter.builder("mail.smtp.connections.reused").register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.smtp.send.duration").register(meterRegistry);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        PooledTransport pooled = null;
+
+        for (int i = 0; i < mimeMessages.length; i++) {
+            MimeMessage mimeMessage = mimeMessages[i];
+            Object original = (originalMessages != null ? originalMessages[i] : mimeMessage);
+
+            if (pooled == null) {
+                try {
+                    pooled = borrow();
+                } catch (AuthenticationFailedException ex) {
+                    throw new MailAuthenticationException(ex);
+                } catch (MessagingException ex) {
+                    for (int j = i; j < mimeMessages.length; j++) {
+                        failedMessages.put(originalMessages != null ? originalMessages[j] : mimeMessages[j], ex);
+                    }
+                    break;
+                }
+            }
+
+            long start = System.nanoTime();
+            try {
+                send(pooled.transport, mimeMessage);
+            } catch (Exception ex) {
+                failedMessages.put(original, ex);
+                if (!pooled.transport.isConnected()) {
+                    closeQuietly(pooled.transport);
+                    pooled = null;
+                }
+            } finally {
+                sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (pooled != null) {
+            release(pooled);
+        }
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    private void send(Transport transport, MimeMessage mimeMessage) throws MessagingException {
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.saveChanges();
+        if (messageId != null) {
+            mimeMessage.setHeader("Message-ID", messageId);
+        }
+        Address[] addresses = mimeMessage.getAllRecipients();
+        transport.sendMessage(mimeMessage, (addresses != null ? addresses : new Address[0]));
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        PooledTransport pooled;
+        while ((pooled = idleTransports.pollFirst()) != null) {
+            if (!pooled.isExpired(idleTimeoutNanos) && pooled.transport.isConnected()) {
+                reused.increment();
+                return pooled;
+            }
+            closeQuietly(pooled.transport);
+        }
+        Transport transport = connectTransport();
+        opened.increment();
+        return new PooledTransport(transport);
+    }
+
+    private void release(PooledTransport pooled) {
+        pooled.lastUsed = System.nanoTime();
+        if (!idleTransports.offerFirst(pooled)) {
+            closeQuietly(pooled.transport);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mail.smtp.pool.idle-timeout:30000}")
+    public void evictIdle() {
+        idleTransports.removeIf(pooled -> {
+            if (pooled.isExpired(idleTimeoutNanos)) {
+                closeQuietly(pooled.transport);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        PooledTransport pooled;
+        while ((pooled = idleTransports.pollFirst()) != null) {
+            closeQuietly(pooled.transport);
+        }
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException ignored) {
+            // the connection is being discarded anyway
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+
+        private volatile long lastUsed = System.nanoTime();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        private boolean isExpired(long idleTimeoutNanos) {
+            return System.nanoTime() - lastUsed > idleTimeoutNanos;
+        }
+    }
+}
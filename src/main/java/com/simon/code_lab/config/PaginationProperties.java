@@ -0,0 +1,53 @@
+package com.simon.code_lab.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PaginationProperties {
+    private final int taskDefaultSize;
+
+    private final int taskMaxSize;
+
+    private final int todoListDefaultSize;
+
+    private final int todoListMaxSize;
+
+    private final int searchDefaultSize;
+
+    private final int searchMaxSize;
+
+    public PaginationProperties(
+            @Value("${pagination.tasks.default-size:100}") int taskDefaultSize,
+            @Value("${pagination.tasks.max-size:500}") int taskMaxSize,
+            @Value("${pagination.todolists.default-size:50}") int todoListDefaultSize,
+            @Value("${pagination.todolists.max-size:200}") int todoListMaxSize,
+            @Value("${pagination.search.default-size:20}") int searchDefaultSize,
+            @Value("${pagination.search.max-size:100}") int searchMaxSize) {
+        this.taskDefaultSize = taskDefaultSize;
+        this.taskMaxSize = taskMaxSize;
+        this.todoListDefaultSize = todoListDefaultSize;
+        this.todoListMaxSize = todoListMaxSize;
+        this.searchDefaultSize = searchDefaultSize;
+        this.searchMaxSize = searchMaxSize;
+    }
+
+    public int taskPageSize(Integer requested) {
+        return resolve(requested, taskDefaultSize, taskMaxSize);
+    }
+
+    public int todoListPageSize(Integer requested) {
+        return resolve(requested, todoListDefaultSize, todoListMaxSize);
+    }
+
+    public int searchPageSize(Integer requested) {
+        return resolve(requested, searchDefaultSize, searchMaxSize);
+    }
+
+    private static int resolve(Integer requested, int defaultSize, int maxSize) {
+        if (requested == null) {
+            return defaultSize;
+        }
+        return Math.min(Math.max(requested, 1), maxSize);
+    }
+}
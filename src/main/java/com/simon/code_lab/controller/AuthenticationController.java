@@ -2,6 +2,7 @@ package com.simon.code_lab.controller;
 
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -11,13 +12,16 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.simon.code_lab.dto.EmailDto;
 import com.simon.code_lab.dto.LoginUserDto;
+import com.simon.code_lab.dto.RefreshTokenDto;
 import com.simon.code_lab.dto.RegisterUserDto;
 import com.simon.code_lab.dto.VerifiyUserDto;
+import com.simon.code_lab.exception.LoginThrottledException;
 import com.simon.code_lab.exception.UserNotEnabledException;
 import com.simon.code_lab.model.User;
 import com.simon.code_lab.response.LoginResponse;
 import com.simon.code_lab.service.AuthenticationService;
 import com.simon.code_lab.service.JwtService;
+import com.simon.code_lab.service.RefreshTokenService;
 
 @RequestMapping("/auth")
 @RestController
@@ -26,30 +30,53 @@ public class AuthenticationController {
 
     private final AuthenticationService authenticationService;
 
-    public AuthenticationController(JwtService jwtService, AuthenticationService authenticationService) {
+    private final RefreshTokenService refreshTokenService;
+
+    public AuthenticationController(JwtService jwtService, AuthenticationService authenticationService,
+            RefreshTokenService refreshTokenService) {
         this.jwtService = jwtService;
         this.authenticationService = authenticationService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @PostMapping("/signup")
     public ResponseEntity<User> register(@RequestBody RegisterUserDto registerUserDto) {
-        User user = authenticationService.signup(registerUserDto);
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok(authenticationService.signup(registerUserDto));
     }
 
     @PostMapping("/login")
     public ResponseEntity<?> authenticate(@RequestBody LoginUserDto loginUserDto) {
+        User user;
         try {
-            User user = authenticationService.authenticate(loginUserDto);
-            String token = jwtService.generateToken(user);
+            user = authenticationService.authenticate(loginUserDto);
+        } catch (RuntimeException e) {
+            return loginFailure(e);
+        }
+        return ResponseEntity.ok(loginResponse(user, refreshTokenService.issue(user)));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@RequestBody RefreshTokenDto refreshTokenDto) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshTokenDto.getRefreshToken());
+        return ResponseEntity.ok(loginResponse(rotation.user(), rotation.refreshToken()));
+    }
+
+    private LoginResponse loginResponse(User user, String refreshToken) {
+        String token = jwtService.generateToken(user);
+        return new LoginResponse(token, jwtService.getExpiration(), refreshToken,
+                refreshTokenService.getExpiration());
+    }
 
-            LoginResponse loginResponse = new LoginResponse(token, jwtService.getExpiration());
-            return ResponseEntity.ok(loginResponse);
-        } catch (UserNotEnabledException e) {
+    private ResponseEntity<?> loginFailure(RuntimeException e) {
+        if (e instanceof LoginThrottledException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
+        }
+        if (e instanceof UserNotEnabledException) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
         }
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
     }
 
     @PostMapping("/verify")
@@ -0,0 +1,62 @@
+package com.simon.code_lab.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.simon.code_lab.exception.PreconditionFailedException;
+
+// Entity versions travel as strong ETags: "3". A GET on a list adds the change stamp of its tasks and members
+// after the version: "3.118.2".
+final class ETags {
+    // Lets browsers keep polled responses and revalidate them, instead of Spring Security's no-store.
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return quote(Long.toString(version));
+    }
+
+    static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+
+    // Null when the write is unconditional (no header or "*"). Weak or malformed tags can never match. Only the
+    // version of a list tag is checked, so task and member changes never fail a write on the list itself.
+    static Long expectedVersion(String ifMatch, String resource, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                String value = tag.substring(1, tag.length() - 1);
+                int stamp = value.indexOf('.');
+                return Long.valueOf(stamp < 0 ? value : value.substring(0, stamp));
+            } catch (NumberFormatException e) {
+                // falls through
+            }
+        }
+        throw new PreconditionFailedException(resource, id);
+    }
+
+    // Weak comparison, as If-None-Match requires.
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.simon.code_lab.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+
+import com.simon.code_lab.dto.CursorPage;
+
+// Pages keep the plain JSON array as body; the cursor of the next page travels in a header.
+final class PageResponses {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private PageResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> ok(CursorPage<T> page) {
+        return ok(ResponseEntity.ok(), page);
+    }
+
+    static <T> ResponseEntity<List<T>> ok(ResponseEntity.BodyBuilder response, CursorPage<T> page) {
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+}
@@ -2,19 +2,28 @@ package com.simon.code_lab.controller;
 
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.simon.code_lab.dto.TaskDto;
+import com.simon.code_lab.dto.TaskFilter;
+import com.simon.code_lab.dto.TaskPatchDto;
+import com.simon.code_lab.dto.TaskSearchResultDto;
+import com.simon.code_lab.dto.request.BatchDeleteTasksRequest;
+import com.simon.code_lab.dto.request.BatchUpdateTaskRequest;
 import com.simon.code_lab.dto.request.CreateTaskRequest;
+import com.simon.code_lab.dto.request.PatchTaskRequest;
 import com.simon.code_lab.dto.request.UpdateTaskRequest;
 import com.simon.code_lab.service.TaskService;
 
@@ -28,31 +37,88 @@ public class TaskController {
 
     @PostMapping
     public ResponseEntity<TaskDto> createTask(@RequestBody CreateTaskRequest request) {
-        return ResponseEntity.ok(taskService.addTask(
+        return withETag(taskService.addTask(
                 request.getListId(),
                 request.getTitle(),
                 request.getDescription()));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<TaskDto>> createTasks(@RequestBody List<CreateTaskRequest> requests) {
+        return ResponseEntity.ok(taskService.addTasks(requests));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<TaskDto>> updateTasks(@RequestBody List<BatchUpdateTaskRequest> requests) {
+        return ResponseEntity.ok(taskService.updateTasks(requests));
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<Void> deleteTasks(@RequestBody BatchDeleteTasksRequest request) {
+        taskService.deleteTasks(request.getIds());
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping
-    public ResponseEntity<List<TaskDto>> getTasks(@RequestParam Long listId) {
-        return ResponseEntity.ok(taskService.getTasksForList(listId));
+    public ResponseEntity<List<TaskDto>> getTasks(
+            @RequestParam Long listId,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) String titlePrefix,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        TaskFilter filter = new TaskFilter(completed, titlePrefix, TaskFilter.Sort.fromParam(sort));
+        return PageResponses.ok(taskService.getTasksForList(listId, filter, cursor, size));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<TaskSearchResultDto>> searchTasks(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return PageResponses.ok(taskService.searchTasks(query, cursor, size));
     }
 
     @PutMapping("/{taskId}")
     public ResponseEntity<TaskDto> updateTask(
             @PathVariable Long taskId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody UpdateTaskRequest request) {
-        return ResponseEntity.ok(taskService.updateTask(
+        return withETag(taskService.updateTask(
                 taskId,
                 request.getTitle(),
                 request.getDescription(),
-                request.isCompleted()));
+                request.isCompleted(),
+                ETags.expectedVersion(ifMatch, "Task", taskId)));
+    }
+
+    @PatchMapping("/{taskId}")
+    public ResponseEntity<TaskPatchDto> patchTask(
+            @PathVariable Long taskId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody PatchTaskRequest request) {
+        TaskPatchDto patched = taskService.patchTask(
+                taskId,
+                request.getTitle(),
+                request.getDescription(),
+                request.getCompleted(),
+                ETags.expectedVersion(ifMatch, "Task", taskId));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (patched.version() != null) {
+            response.eTag(ETags.of(patched.version()));
+        }
+        return response.body(patched);
     }
 
     @DeleteMapping("/{taskId}")
-    public ResponseEntity<Void> deleteTask(@PathVariable Long taskId) {
-        taskService.deleteTask(taskId);
+    public ResponseEntity<Void> deleteTask(
+            @PathVariable Long taskId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        taskService.deleteTask(taskId, ETags.expectedVersion(ifMatch, "Task", taskId));
         return ResponseEntity.noContent().build();
     }
+
+    private static ResponseEntity<TaskDto> withETag(TaskDto task) {
+        return ResponseEntity.ok().eTag(ETags.of(task.getVersion())).body(task);
+    }
 }
@@ -1,7 +1,15 @@
 package com.simon.code_lab.controller;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,62 +17,163 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simon.code_lab.dto.CursorPage;
 import com.simon.code_lab.dto.TodoListDto;
+import com.simon.code_lab.dto.TodoListSummaryDto;
 import com.simon.code_lab.dto.request.AddMemberRequest;
 import com.simon.code_lab.dto.request.CreateTodoListRequest;
 import com.simon.code_lab.dto.request.UpdateTodoListTitleRequest;
+import com.simon.code_lab.service.TaskExportService;
+import com.simon.code_lab.service.TaskImportService;
 import com.simon.code_lab.service.TodoListService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 @RestController
 @RequestMapping("/todolists")
 @RequiredArgsConstructor
 public class TodoListController {
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private static final String CSV_VALUE = "text/csv";
+
+    private static final MediaType CSV = MediaType.parseMediaType(CSV_VALUE);
+
     private final TodoListService todoListService;
 
+    private final TaskImportService taskImportService;
+
+    private final TaskExportService taskExportService;
+
+    private final ObjectMapper objectMapper;
+
     @PostMapping
     public ResponseEntity<TodoListDto> createTodoList(@RequestBody CreateTodoListRequest request) {
-        return ResponseEntity.ok(todoListService.createTodoList(request.getTitle()));
+        return withETag(todoListService.createTodoList(request.getTitle()));
     }
 
+    // Polling clients send If-None-Match: a 304 costs one query on versions instead of loading the lists.
+    // The tag is always read first, so it is never newer than the body it is sent with.
     @GetMapping
-    public ResponseEntity<List<TodoListDto>> getTodoLists() {
-        return ResponseEntity.ok(todoListService.getTodoListsForCurrentUser());
+    public ResponseEntity<List<TodoListDto>> getTodoLists(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = ETags.quote(todoListService.getTodoListsTag(cursor, size));
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
+        }
+        CursorPage<TodoListDto> page = todoListService.getTodoListsForCurrentUser(cursor, size);
+        return PageResponses.ok(ResponseEntity.ok().eTag(eTag).cacheControl(ETags.REVALIDATE), page);
+    }
+
+    // Same pages and tags as GET /todolists, with counts instead of the members and tasks.
+    @GetMapping("/summary")
+    public ResponseEntity<List<TodoListSummaryDto>> getTodoListSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = ETags.quote(todoListService.getTodoListsTag(cursor, size));
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
+        }
+        CursorPage<TodoListSummaryDto> page = todoListService.getTodoListSummaries(cursor, size);
+        return PageResponses.ok(ResponseEntity.ok().eTag(eTag).cacheControl(ETags.REVALIDATE), page);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<TodoListDto> getTodoListById(@PathVariable Long id) {
-        return ResponseEntity.ok(todoListService.getTodoListById(id));
+    public ResponseEntity<TodoListDto> getTodoListById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = ETags.quote(todoListService.getTodoListTag(id));
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
+        }
+        TodoListDto list = todoListService.getTodoListById(id);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(ETags.REVALIDATE).body(list);
+    }
+
+    // Streams the body in and the NDJSON report out; nothing is buffered beyond one chunk of tasks.
+    @PostMapping(value = "/{id}/import", consumes = { NDJSON_VALUE, CSV_VALUE })
+    public void importTasks(
+            @PathVariable Long id,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        TaskImportService.Format format = CSV.isCompatibleWith(contentType)
+                ? TaskImportService.Format.CSV
+                : TaskImportService.Format.NDJSON;
+        taskImportService.checkAccess(id);
+
+        Reader body = new InputStreamReader(request.getInputStream(),
+                contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8);
+        response.setContentType(NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        taskImportService.importTasks(id, format, body, event -> {
+            out.write(objectMapper.writeValueAsBytes(event));
+            out.write('\n');
+            out.flush();
+        });
+    }
+
+    @GetMapping("/{id}/export")
+    public void exportTasks(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "json") String format,
+            HttpServletResponse response) throws IOException {
+        TaskExportService.Format exportFormat = TaskExportService.Format.fromParam(format);
+        taskExportService.checkAccess(id);
+        taskExportService.flushPendingToggles(id);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("todolist-" + id + "." + exportFormat.getExtension())
+                .build()
+                .toString());
+        taskExportService.exportTasks(id, exportFormat, response.getOutputStream());
     }
 
     @PostMapping("/{id}/members")
     public ResponseEntity<TodoListDto> addMember(
             @PathVariable Long id,
             @RequestBody AddMemberRequest request) {
-        return ResponseEntity.ok(todoListService.addMember(id, request.getMemberEmail()));
+        return withETag(todoListService.addMember(id, request.getMemberEmail()));
     }
 
     @DeleteMapping("/{id}/members/{memberEmail}")
     public ResponseEntity<TodoListDto> removeMember(
             @PathVariable Long id,
             @PathVariable String memberEmail) {
-        return ResponseEntity.ok(todoListService.removeMember(id, memberEmail));
+        return withETag(todoListService.removeMember(id, memberEmail));
     }
 
     @PutMapping("/{id}/title")
     public ResponseEntity<TodoListDto> updateTitle(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody UpdateTodoListTitleRequest request) {
-        return ResponseEntity.ok(todoListService.updateTitle(id, request.getTitle()));
+        return withETag(todoListService.updateTitle(id, request.getTitle(),
+                ETags.expectedVersion(ifMatch, "Todo list", id)));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteTodoList(@PathVariable Long id) {
-        todoListService.deleteTodoList(id);
+    public ResponseEntity<Void> deleteTodoList(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        todoListService.deleteTodoList(id, ETags.expectedVersion(ifMatch, "Todo list", id));
         return ResponseEntity.noContent().build();
     }
+
+    private static ResponseEntity<TodoListDto> withETag(TodoListDto list) {
+        return ResponseEntity.ok().eTag(ETags.of(list.getVersion())).body(list);
+    }
 }
@@ -5,14 +5,23 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 import com.simon.code_lab.model.User;
+import com.simon.code_lab.service.RefreshTokenService;
+import com.simon.code_lab.service.TokenVersionService;
 
 @Controller
 @RequestMapping("/users")
 public class UserController {
-    public UserController() {
+    private final TokenVersionService tokenVersionService;
+
+    private final RefreshTokenService refreshTokenService;
+
+    public UserController(TokenVersionService tokenVersionService, RefreshTokenService refreshTokenService) {
+        this.tokenVersionService = tokenVersionService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @GetMapping("/me")
@@ -21,4 +30,13 @@ public class UserController {
         User currentUser = (User) authentication.getPrincipal();
         return ResponseEntity.ok(currentUser);
     }
+
+    @PostMapping("/me/revoke-tokens")
+    public ResponseEntity<Void> revokeTokens() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User currentUser = (User) authentication.getPrincipal();
+        tokenVersionService.revokeTokens(currentUser.getId());
+        refreshTokenService.revokeAll(currentUser.getId());
+        return ResponseEntity.noContent().build();
+    }
 }
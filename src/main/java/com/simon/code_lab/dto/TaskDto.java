@@ -12,4 +12,5 @@ public class TaskDto {
     private String title;
     private String description;
     private boolean completed;
+    private long version;
 }
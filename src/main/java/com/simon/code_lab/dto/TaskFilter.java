@@ -0,0 +1,31 @@
+package com.simon.code_lab.dto;
+
+import java.util.Locale;
+
+public record TaskFilter(Boolean completed, String titlePrefix, Sort sort) {
+    public static final TaskFilter ALL = new TaskFilter(null, null, Sort.ID);
+
+    public enum Sort {
+        ID, TITLE;
+
+        public static Sort fromParam(String value) {
+            if (value == null || value.isBlank()) {
+                return ID;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported sort " + value);
+            }
+        }
+    }
+
+    public TaskFilter {
+        if (titlePrefix != null && titlePrefix.isEmpty()) {
+            titlePrefix = null;
+        }
+        if (sort == null) {
+            sort = Sort.ID;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.simon.code_lab.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One line of the NDJSON import report: a rejected row, the progress after a chunk, or the final totals.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TaskImportEvent(String type, Long line, String message, Long processed, Long imported,
+        Long failed) {
+
+    public static TaskImportEvent rowError(long line, String message) {
+        return new TaskImportEvent("error", line, message, null, null, null);
+    }
+
+    public static TaskImportEvent progress(long processed, long imported, long failed) {
+        return new TaskImportEvent("progress", null, null, processed, imported, failed);
+    }
+
+    public static TaskImportEvent done(long processed, long imported, long failed) {
+        return new TaskImportEvent("done", null, null, processed, imported, failed);
+    }
+
+    public static TaskImportEvent aborted(long line, String message, long processed, long imported, long failed) {
+        return new TaskImportEvent("aborted", line, message, processed, imported, failed);
+    }
+}
@@ -0,0 +1,8 @@
+package com.simon.code_lab.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Only the fields the PATCH changed. The version is known only when the request carried If-Match.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TaskPatchDto(Long id, String title, String description, Boolean completed, Long version) {
+}
@@ -0,0 +1,16 @@
+package com.simon.code_lab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TaskSearchResultDto {
+    private Long listId;
+    private Long id;
+    private String title;
+    private String description;
+    private boolean completed;
+}
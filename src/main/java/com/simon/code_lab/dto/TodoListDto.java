@@ -2,6 +2,8 @@ package com.simon.code_lab.dto;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -14,5 +16,8 @@ public class TodoListDto {
     private String title;
     private UserDto owner;
     private List<UserDto> members;
+    // Left out of GET /todolists pages.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<TaskDto> tasks;
+    private long version;
 }
\ No newline at end of file
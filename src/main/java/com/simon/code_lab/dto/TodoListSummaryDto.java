@@ -0,0 +1,18 @@
+package com.simon.code_lab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TodoListSummaryDto {
+    private Long id;
+    private String title;
+    private UserDto owner;
+    private long memberCount;
+    private long taskCount;
+    private long completedTaskCount;
+    private long version;
+}
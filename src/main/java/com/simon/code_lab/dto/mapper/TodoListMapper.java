@@ -1,10 +1,21 @@
 package com.simon.code_lab.dto.mapper;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.simon.code_lab.dto.TaskDto;
+import com.simon.code_lab.dto.TaskSearchResultDto;
 import com.simon.code_lab.dto.TodoListDto;
+import com.simon.code_lab.dto.TodoListSummaryDto;
 import com.simon.code_lab.dto.UserDto;
+import com.simon.code_lab.dto.projection.MemberRow;
+import com.simon.code_lab.dto.projection.TaskRow;
+import com.simon.code_lab.dto.projection.TaskSearchRow;
+import com.simon.code_lab.dto.projection.TodoListRow;
+import com.simon.code_lab.dto.projection.TodoListSummaryRow;
 import com.simon.code_lab.model.Task;
 import com.simon.code_lab.model.TodoList;
 import com.simon.code_lab.model.User;
@@ -16,7 +27,16 @@ public class TodoListMapper {
     }
 
     public static TaskDto toTaskDto(Task task) {
-        return new TaskDto(task.getId(), task.getTitle(), task.getDescription(), task.isCompleted());
+        return new TaskDto(task.getId(), task.getTitle(), task.getDescription(), task.isCompleted(),
+                task.getVersion());
+    }
+
+    public static TaskDto toTaskDto(TaskRow task) {
+        return new TaskDto(task.id(), task.title(), task.description(), task.completed(), task.version());
+    }
+
+    public static TaskSearchResultDto toTaskSearchResultDto(TaskSearchRow task) {
+        return new TaskSearchResultDto(task.listId(), task.id(), task.title(), task.description(), task.completed());
     }
 
     public static TodoListDto toTodoListDto(TodoList list) {
@@ -25,7 +45,48 @@ public class TodoListMapper {
                 list.getTitle(),
                 toUserDto(list.getOwner()),
                 list.getMembers().stream().map(TodoListMapper::toUserDto).collect(Collectors.toList()),
-                list.getTasks().stream().map(TodoListMapper::toTaskDto).collect(Collectors.toList())
+                list.getTasks().stream().map(TodoListMapper::toTaskDto).collect(Collectors.toList()),
+                list.getVersion()
         );
     }
+
+    // A null tasks list leaves TodoListDto.tasks null, which drops it from the JSON.
+    public static List<TodoListDto> toTodoListDtos(List<TodoListRow> lists, List<MemberRow> members,
+            List<TaskRow> tasks) {
+        Map<Long, List<UserDto>> membersByList = new HashMap<>();
+        for (MemberRow member : members) {
+            membersByList.computeIfAbsent(member.listId(), id -> new ArrayList<>())
+                    .add(new UserDto(member.id(), member.username(), member.email()));
+        }
+
+        Map<Long, List<TaskDto>> tasksByList = new HashMap<>();
+        if (tasks != null) {
+            for (TaskRow task : tasks) {
+                tasksByList.computeIfAbsent(task.listId(), id -> new ArrayList<>()).add(toTaskDto(task));
+            }
+        }
+
+        List<TodoListDto> result = new ArrayList<>(lists.size());
+        for (TodoListRow list : lists) {
+            result.add(new TodoListDto(
+                    list.id(),
+                    list.title(),
+                    new UserDto(list.ownerId(), list.ownerUsername(), list.ownerEmail()),
+                    membersByList.getOrDefault(list.id(), new ArrayList<>()),
+                    tasks != null ? tasksByList.getOrDefault(list.id(), new ArrayList<>()) : null,
+                    list.version()));
+        }
+        return result;
+    }
+
+    public static TodoListSummaryDto toTodoListSummaryDto(TodoListSummaryRow list) {
+        return new TodoListSummaryDto(
+                list.id(),
+                list.title(),
+                new UserDto(list.ownerId(), list.ownerUsername(), list.ownerEmail()),
+                list.memberCount(),
+                list.taskCount(),
+                list.completedTaskCount(),
+                list.version());
+    }
 }
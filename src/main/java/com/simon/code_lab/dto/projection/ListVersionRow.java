@@ -0,0 +1,8 @@
+package com.simon.code_lab.dto.projection;
+
+// lastChange and changes stamp the todo_list_change rows of the list: a write on its tasks or members adds one.
+public record ListVersionRow(Long id, long version, Long lastChange, long changes) {
+    public String tag() {
+        return version + "." + (lastChange != null ? lastChange : 0) + "." + changes;
+    }
+}
@@ -0,0 +1,4 @@
+package com.simon.code_lab.dto.projection;
+
+public record MemberRow(Long listId, Long id, String username, String email) {
+}
@@ -0,0 +1,4 @@
+package com.simon.code_lab.dto.projection;
+
+public record TaskRow(Long listId, Long id, String title, String description, boolean completed, long version) {
+}
@@ -0,0 +1,5 @@
+package com.simon.code_lab.dto.projection;
+
+public record TaskSearchRow(Long listId, Long id, String title, String description, boolean completed,
+        float rank) {
+}
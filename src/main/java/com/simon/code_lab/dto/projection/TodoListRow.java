@@ -0,0 +1,4 @@
+package com.simon.code_lab.dto.projection;
+
+public record TodoListRow(Long id, String title, Long ownerId, String ownerUsername, String ownerEmail, long version) {
+}
@@ -0,0 +1,5 @@
+package com.simon.code_lab.dto.projection;
+
+public record TodoListSummaryRow(Long id, String title, Long ownerId, String ownerUsername, String ownerEmail,
+        long memberCount, long taskCount, long completedTaskCount, long version) {
+}
@@ -0,0 +1,10 @@
+package com.simon.code_lab.dto.request;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class BatchDeleteTasksRequest {
+    private List<Long> ids;
+}
@@ -0,0 +1,11 @@
+package com.simon.code_lab.dto.request;
+
+import lombok.Data;
+
+@Data
+public class BatchUpdateTaskRequest {
+    private Long id;
+    private String title;
+    private String description;
+    private boolean completed;
+}
@@ -7,4 +7,6 @@ public class CreateTaskRequest {
     private Long listId;
     private String title;
     private String description;
+    // Only read by the batch and import paths.
+    private boolean completed;
 }
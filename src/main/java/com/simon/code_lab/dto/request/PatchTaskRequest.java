@@ -0,0 +1,11 @@
+package com.simon.code_lab.dto.request;
+
+import lombok.Data;
+
+// Absent fields are left unchanged.
+@Data
+public class PatchTaskRequest {
+    private String title;
+    private String description;
+    private Boolean completed;
+}
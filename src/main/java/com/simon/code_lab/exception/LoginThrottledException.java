@@ -0,0 +1,7 @@
+package com.simon.code_lab.exception;
+
+public class LoginThrottledException extends RuntimeException {
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.simon.code_lab.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String resource, Long id) {
+        super(resource + " " + id + " was modified by another request");
+    }
+}
@@ -0,0 +1,24 @@
+package com.simon.code_lab.model;
+
+import java.util.Set;
+
+import lombok.Getter;
+
+@Getter
+public enum EmailType {
+    VERIFICATION("verification", "Verify your account", Set.of("code")),
+    LIST_INVITE("list-invite", "{{inviter}} shared \"{{list}}\" with you", Set.of("inviter", "list", "username")),
+    TASK_REMINDER("task-reminder", "Reminder: {{task}}", Set.of("task", "list", "username"));
+
+    private final String templateName;
+
+    private final String subject;
+
+    private final Set<String> slots;
+
+    EmailType(String templateName, String subject, Set<String> slots) {
+        this.templateName = templateName;
+        this.subject = subject;
+        this.slots = slots;
+    }
+}
@@ -1,28 +1,64 @@
 package com.simon.code_lab.model;
 
+import java.util.Locale;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_task_list_id", columnList = "todo_list_id, id"),
+        @Index(name = "idx_task_list_completed", columnList = "todo_list_id, completed, id"),
+        @Index(name = "idx_task_list_title", columnList = "todo_list_id, title_key, id"),
+        @Index(name = "idx_task_list_completed_title", columnList = "todo_list_id, completed, title_key, id")
+})
 @Getter
 @Setter
 public class Task {
+    // Pooled sequence rather than IDENTITY, so Hibernate can batch inserts.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
     private Long id;
 
     private String title;
+
+    // Lower-cased copy of the title, used by the title sort and prefix filter indexes.
+    @Setter(AccessLevel.NONE)
+    @Column(name = "title_key")
+    private String titleKey = "";
+
     private String description;
     private boolean completed = false;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "todo_list_id")
     private TodoList todoList;
 
+    // Optimistic lock; exposed as the task's ETag; the default fills rows created before the column existed.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    public void setTitle(String title) {
+        this.title = title;
+        this.titleKey = toTitleKey(title);
+    }
+
+    public static String toTitleKey(String title) {
+        return title == null ? "" : title.toLowerCase(Locale.ROOT);
+    }
 }
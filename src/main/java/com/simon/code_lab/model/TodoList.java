@@ -1,29 +1,40 @@
 package com.simon.code_lab.model;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.hibernate.annotations.SQLRestriction;
+
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 
 @Entity
+@Table(indexes = @Index(name = "idx_todo_list_deleted_at", columnList = "deleted_at"))
+@SQLRestriction("deleted_at IS NULL")
 @Getter
 @Setter
 public class TodoList {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_list_seq")
+    @SequenceGenerator(name = "todo_list_seq", sequenceName = "todo_list_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -36,11 +47,22 @@ public class TodoList {
     @JoinTable(
         name = "todo_list_members",
         joinColumns = @JoinColumn(name = "todo_list_id"),
-        inverseJoinColumns = @JoinColumn(name = "user_id")
+        inverseJoinColumns = @JoinColumn(name = "user_id"),
+        indexes = @Index(name = "idx_todo_list_members_user_list", columnList = "user_id, todo_list_id")
     )
     private Set<User> members = new HashSet<>();
 
     @OneToMany(mappedBy = "todoList", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Task> tasks = new ArrayList<>();
 
+    // Optimistic lock and the first part of the list's ETag; the default fills rows created before the column existed.
+    // Member and task changes move the change stamp of the ETag instead.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    // Set when a large list is deleted; TodoListPurger removes its tasks and the row later.
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
 }
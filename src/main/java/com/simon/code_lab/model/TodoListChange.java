@@ -0,0 +1,28 @@
+package com.simon.code_lab.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+
+// One row per write on a list's tasks or members, inserted by the write's own transaction. Concurrent writers
+// only insert, so they never wait on each other the way an UPDATE of a shared counter row would.
+// TodoListChangeCompactor folds the rows of each list back into one.
+@Entity
+@Table(name = "todo_list_change", indexes = {
+        @Index(name = "idx_todo_list_change_list", columnList = "todo_list_id, id")
+})
+@Getter
+public class TodoListChange {
+    // IDENTITY: rows are only inserted by the native statements of TodoListChangeRepository.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "todo_list_id", nullable = false)
+    private Long todoListId;
+}
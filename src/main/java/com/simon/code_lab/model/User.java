@@ -3,6 +3,7 @@ package com.simon.code_lab.model;
 import java.time.LocalDateTime;
 import java.util.Collection;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -11,12 +12,16 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_verification_code", columnList = "verification_code"),
+        @Index(name = "idx_users_unverified", columnList = "enabled, verification_expiration")
+})
 @Getter
 @Setter
 public class User implements UserDetails{
@@ -41,6 +46,10 @@ public class User implements UserDetails{
     @Column(name = "verification_expiration")
     private LocalDateTime verificationExpiration;
 
+    @Column(name = "token_version", nullable = false)
+    @ColumnDefault("0")
+    private long tokenVersion;
+
     public User(String username, String email, String password) {
         this.username = username;
         this.email = email;
@@ -50,6 +59,24 @@ public class User implements UserDetails{
     public User() {
     }
 
+    // Identity is the database id so that detached instances and Hibernate proxies compare equal. The hash
+    // follows the id once assigned, so a User must not sit in a hashed collection across its first persist.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof User other)) {
+            return false;
+        }
+        return getId() != null && getId().equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getId() != null ? getId().hashCode() : User.class.hashCode();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return java.util.Collections.emptyList();
@@ -0,0 +1,38 @@
+package com.simon.code_lab.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.simon.code_lab.model.OutboxEmail;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+    // SKIP LOCKED (-2) lets several instances drain the outbox without picking the same rows.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    // For SENDING rows, nextAttemptAt is the end of the lease.
+    @Query("SELECT e FROM OutboxEmail e WHERE e.status IN :statuses AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<OutboxEmail> findDue(@Param("statuses") Collection<OutboxEmail.Status> statuses,
+            @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT e.id FROM OutboxEmail e WHERE e.status = com.simon.code_lab.model.OutboxEmail.Status.SENT "
+            + "AND e.sentAt < :cutoff ORDER BY e.sentAt")
+    List<Long> findIdsSentBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEmail e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
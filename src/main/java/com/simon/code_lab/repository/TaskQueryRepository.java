@@ -0,0 +1,11 @@
+package com.simon.code_lab.repository;
+
+import java.util.List;
+
+import com.simon.code_lab.dto.TaskFilter;
+import com.simon.code_lab.dto.projection.TaskRow;
+
+public interface TaskQueryRepository {
+    // Keyset page of a list's tasks; afterTitleKey is only read when sorting by title.
+    List<TaskRow> findPage(Long listId, TaskFilter filter, long afterId, String afterTitleKey, int limit);
+}
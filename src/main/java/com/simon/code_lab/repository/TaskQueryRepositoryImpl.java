@@ -0,0 +1,73 @@
+package com.simon.code_lab.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.simon.code_lab.dto.TaskFilter;
+import com.simon.code_lab.dto.projection.TaskRow;
+import com.simon.code_lab.model.Task;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+// Only the predicates the filter asks for are emitted, so each combination maps onto one of the task indexes.
+class TaskQueryRepositoryImpl implements TaskQueryRepository {
+    private static final char LIKE_ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskRow> findPage(Long listId, TaskFilter filter, long afterId, String afterTitleKey, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskRow> query = cb.createQuery(TaskRow.class);
+        Root<Task> task = query.from(Task.class);
+        Path<Long> id = task.get("id");
+        Path<String> titleKey = task.get("titleKey");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(task.get("todoList").get("id"), listId));
+        if (filter.completed() != null) {
+            predicates.add(cb.equal(task.get("completed"), filter.completed()));
+        }
+        if (filter.titlePrefix() != null) {
+            predicates.add(cb.like(titleKey, likePrefix(filter.titlePrefix()), LIKE_ESCAPE));
+        }
+
+        if (filter.sort() == TaskFilter.Sort.TITLE) {
+            if (afterTitleKey != null) {
+                predicates.add(cb.or(
+                        cb.greaterThan(titleKey, afterTitleKey),
+                        cb.and(cb.equal(titleKey, afterTitleKey), cb.greaterThan(id, afterId))));
+            }
+            query.orderBy(cb.asc(titleKey), cb.asc(id));
+        } else {
+            if (afterId > 0) {
+                predicates.add(cb.greaterThan(id, afterId));
+            }
+            query.orderBy(cb.asc(id));
+        }
+
+        query.select(cb.construct(TaskRow.class, task.get("todoList").get("id"), id, task.get("title"),
+                task.get("description"), task.get("completed"), task.get("version")))
+                .where(predicates.toArray(Predicate[]::new));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static String likePrefix(String prefix) {
+        StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+        for (char c : Task.toTitleKey(prefix).toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
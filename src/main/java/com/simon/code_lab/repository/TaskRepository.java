@@ -1,14 +1,60 @@
 package com.simon.code_lab.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.simon.code_lab.dto.projection.TaskRow;
 import com.simon.code_lab.model.Task;
-import com.simon.code_lab.model.TodoList;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
-    List<Task> findByTodoList(TodoList todoList);
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskQueryRepository {
+    // Forward-only cursor over projections: nothing enters the persistence context, rows arrive in
+    // fetch-size batches. Must be consumed inside a transaction (PostgreSQL ignores the fetch size otherwise).
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.simon.code_lab.dto.projection.TaskRow(t.todoList.id, t.id, t.title, t.description, t.completed, t.version) "
+            + "FROM Task t WHERE t.todoList.id = :listId ORDER BY t.id")
+    Stream<TaskRow> streamByTodoListId(@Param("listId") Long listId);
+
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.todoList.id = :listId")
+    long countByTodoListId(@Param("listId") Long listId);
+
+    @Query("SELECT t.todoList.id FROM Task t WHERE t.id = :taskId")
+    Optional<Long> findListIdById(@Param("taskId") Long taskId);
+
+    @Modifying
+    @Query("UPDATE Task t SET t.completed = :completed, t.version = t.version + 1 WHERE t.id IN :taskIds")
+    int setCompleted(@Param("taskIds") Collection<Long> taskIds, @Param("completed") boolean completed);
+
+    // Partial update guarded by membership and, when given, by the expected version; nothing is loaded.
+    // Null parameters leave their column unchanged.
+    @Modifying
+    @Query("UPDATE Task t SET t.title = COALESCE(:title, t.title), t.titleKey = COALESCE(:titleKey, t.titleKey), "
+            + "t.description = COALESCE(:description, t.description), "
+            + "t.completed = COALESCE(:completed, t.completed), t.version = t.version + 1 "
+            + "WHERE t.id = :taskId AND (:expectedVersion IS NULL OR t.version = :expectedVersion) "
+            + "AND EXISTS (SELECT 1 FROM TodoList l JOIN l.members m WHERE l.id = t.todoList.id AND m.id = :userId)")
+    int patch(@Param("taskId") Long taskId, @Param("userId") Long userId, @Param("title") String title,
+            @Param("titleKey") String titleKey, @Param("description") String description,
+            @Param("completed") Boolean completed, @Param("expectedVersion") Long expectedVersion);
+
+    @Query("SELECT t.id FROM Task t WHERE t.todoList.id = :listId")
+    List<Long> findIdsByTodoListId(@Param("listId") Long listId, Pageable pageable);
+
+    // One statement, without loading the tasks the way cascade/orphanRemoval would.
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.todoList.id = :listId")
+    int bulkDeleteByTodoListId(@Param("listId") Long listId);
 }
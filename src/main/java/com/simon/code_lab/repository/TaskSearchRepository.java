@@ -0,0 +1,117 @@
+package com.simon.code_lab.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.simon.code_lab.dto.projection.TaskSearchRow;
+
+// Ranked search over the user's lists: full-text on PostgreSQL (task.search_vector, schema-postgresql.sql), a LIKE
+// equivalent with the same weights elsewhere. Titles weigh 1.0, descriptions 0.4.
+@Repository
+public class TaskSearchRepository {
+    private static final int MAX_TERMS = 8;
+
+    private static final RowMapper<TaskSearchRow> ROW_MAPPER = (rs, rowNum) -> new TaskSearchRow(
+            rs.getLong("list_id"),
+            rs.getLong("id"),
+            rs.getString("title"),
+            rs.getString("description"),
+            rs.getBoolean("completed"),
+            rs.getFloat("rank"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final boolean postgresql;
+
+    public TaskSearchRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgresql = isPostgresql(dataSource);
+    }
+
+    // afterRank is null on the first page.
+    public List<TaskSearchRow> search(Long userId, String query, Float afterRank, long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("limit", limit);
+        String matches = postgresql ? fullTextMatches(query, params) : likeMatches(query, params);
+        if (matches == null) {
+            return List.of();
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT s.* FROM (").append(matches).append(") s ");
+        if (afterRank != null) {
+            sql.append("WHERE s.rank < :afterRank OR (s.rank = :afterRank AND s.id < :afterId) ");
+            params.addValue("afterRank", afterRank).addValue("afterId", afterId);
+        }
+        sql.append("ORDER BY s.rank DESC, s.id DESC LIMIT :limit");
+        return jdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+    }
+
+    private static String fullTextMatches(String query, MapSqlParameterSource params) {
+        params.addValue("query", query);
+        return "SELECT t.todo_list_id AS list_id, t.id, t.title, t.description, t.completed, "
+                + "CAST(ts_rank(t.search_vector, q.query) AS real) AS rank "
+                + "FROM task t "
+                + "JOIN todo_list_members m ON m.todo_list_id = t.todo_list_id AND m.user_id = :userId "
+                + "CROSS JOIN websearch_to_tsquery('simple', :query) AS q(query) "
+                + "WHERE t.search_vector @@ q.query";
+    }
+
+    private static String likeMatches(String query, MapSqlParameterSource params) {
+        List<String> terms = Arrays.stream(query.toLowerCase(Locale.ROOT).split("\\s+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .limit(MAX_TERMS)
+                .toList();
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        List<String> ranks = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        for (int i = 0; i < terms.size(); i++) {
+            String param = "term" + i;
+            params.addValue(param, "%" + escapeLike(terms.get(i)) + "%");
+            String inTitle = "t.title_key LIKE :" + param + " ESCAPE '\\'";
+            String inDescription = "LOWER(t.description) LIKE :" + param + " ESCAPE '\\'";
+            ranks.add("CASE WHEN " + inTitle + " THEN 1.0 ELSE 0 END");
+            ranks.add("CASE WHEN " + inDescription + " THEN 0.4 ELSE 0 END");
+            conditions.add("(" + inTitle + " OR " + inDescription + ")");
+        }
+        return "SELECT t.todo_list_id AS list_id, t.id, t.title, t.description, t.completed, "
+                + "CAST(" + String.join(" + ", ranks) + " AS real) AS rank "
+                + "FROM task t "
+                + "JOIN todo_list_members m ON m.todo_list_id = t.todo_list_id AND m.user_id = :userId "
+                + "WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static String escapeLike(String term) {
+        StringBuilder escaped = new StringBuilder(term.length());
+        for (char c : term.toCharArray()) {
+            if (c == '%' || c == '_' || c == '\\') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private static boolean isPostgresql(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the database product name", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.simon.code_lab.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.simon.code_lab.model.TodoListChange;
+
+@Repository
+public interface TodoListChangeRepository extends JpaRepository<TodoListChange, Long> {
+    // Insert-only, so a write never locks a row another write needs.
+    @Modifying
+    @Query(value = "INSERT INTO todo_list_change (todo_list_id) SELECT id FROM todo_list WHERE id IN (:listIds)",
+            nativeQuery = true)
+    int record(@Param("listIds") Collection<Long> listIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO todo_list_change (todo_list_id) SELECT todo_list_id FROM task WHERE id = :taskId",
+            nativeQuery = true)
+    int recordByTaskId(@Param("taskId") Long taskId);
+
+    @Modifying
+    @Query(value = "INSERT INTO todo_list_change (todo_list_id) "
+            + "SELECT DISTINCT todo_list_id FROM todo_list_members WHERE user_id IN (:userIds)", nativeQuery = true)
+    int recordByMemberIds(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("DELETE FROM TodoListChange c WHERE c.todoListId = :listId")
+    int deleteByListId(@Param("listId") Long listId);
+
+    @Query("SELECT c.todoListId FROM TodoListChange c GROUP BY c.todoListId HAVING COUNT(c) > 1 ORDER BY c.todoListId")
+    List<Long> findListIdsToCompact(Pageable pageable);
+
+    @Query("SELECT MAX(c.id) FROM TodoListChange c")
+    Long findLastId();
+
+    @Modifying
+    @Query("DELETE FROM TodoListChange c WHERE c.todoListId IN :listIds AND c.id <= :lastId")
+    int deleteUpTo(@Param("listIds") Collection<Long> listIds, @Param("lastId") Long lastId);
+}
@@ -1,12 +1,22 @@
 package com.simon.code_lab.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.simon.code_lab.dto.projection.ListVersionRow;
+import com.simon.code_lab.dto.projection.MemberRow;
+import com.simon.code_lab.dto.projection.TaskRow;
+import com.simon.code_lab.dto.projection.TodoListRow;
+import com.simon.code_lab.dto.projection.TodoListSummaryRow;
 import com.simon.code_lab.model.TodoList;
 import com.simon.code_lab.model.User;
 
@@ -14,6 +24,93 @@ import com.simon.code_lab.model.User;
 public interface TodoListRepository extends JpaRepository<TodoList, Long> {
     List<TodoList> findByOwner(User owner);
 
+    // Answered from the todo_list_members primary key, without loading the members collection.
+    boolean existsByIdAndMembersId(Long id, Long memberId);
+
+    @Query("SELECT l.id FROM TodoList l JOIN l.members m WHERE m.id = :userId ORDER BY l.id")
+    List<Long> findIdsByMemberId(@Param("userId") Long userId);
+
     @Query("SELECT l FROM TodoList l JOIN l.members m WHERE m = :user")
     List<TodoList> findByMember(@Param("user") User user);
+
+    @Query("SELECT m.id FROM TodoList l JOIN l.members m WHERE l.id = :listId")
+    List<Long> findMemberIdsByListId(@Param("listId") Long listId);
+
+    @Modifying
+    @Query(value = "DELETE FROM todo_list_members WHERE todo_list_id = :listId", nativeQuery = true)
+    int deleteMemberships(@Param("listId") Long listId);
+
+    // Native: adding or removing one member must not load the members collection.
+    @Modifying
+    @Query(value = "INSERT INTO todo_list_members (todo_list_id, user_id) VALUES (:listId, :userId)",
+            nativeQuery = true)
+    int insertMembership(@Param("listId") Long listId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM todo_list_members WHERE todo_list_id = :listId AND user_id = :userId",
+            nativeQuery = true)
+    int deleteMembership(@Param("listId") Long listId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE TodoList l SET l.deletedAt = :deletedAt WHERE l.id = :listId")
+    int markDeleted(@Param("listId") Long listId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    // Native: soft-deleted rows are hidden from JPQL by the entity's @SQLRestriction.
+    @Query(value = "SELECT id FROM todo_list WHERE deleted_at IS NOT NULL ORDER BY deleted_at", nativeQuery = true)
+    List<Long> findDeletedIds(Pageable pageable);
+
+    @Modifying
+    @Query(value = "DELETE FROM todo_list WHERE id = :listId", nativeQuery = true)
+    int deleteRow(@Param("listId") Long listId);
+
+    @Query("SELECT new com.simon.code_lab.dto.projection.TodoListRow(l.id, l.title, o.id, o.username, o.email, l.version) "
+            + "FROM TodoList l JOIN l.owner o WHERE l.id = :listId")
+    Optional<TodoListRow> findRowById(@Param("listId") Long listId);
+
+    // Keyset page over the user's memberships, walked through the (user_id, todo_list_id) index.
+    @Query("SELECT new com.simon.code_lab.dto.projection.TodoListRow(l.id, l.title, o.id, o.username, o.email, l.version) "
+            + "FROM TodoList l JOIN l.members m JOIN l.owner o "
+            + "WHERE m.id = :userId AND l.id > :afterId "
+            + "ORDER BY l.id")
+    List<TodoListRow> findRowsByMemberId(@Param("userId") Long userId, @Param("afterId") long afterId,
+            Pageable pageable);
+
+    // Same page as findRowsByMemberId with counts instead of members and tasks: O(lists) rows come back, but each
+    // COUNT still walks one idx_task_list_completed entry per task, so the work grows with the tasks of the page's
+    // lists. The index spares reading the task rows themselves, not counting them.
+    @Query("SELECT new com.simon.code_lab.dto.projection.TodoListSummaryRow(l.id, l.title, o.id, o.username, o.email, "
+            + "SIZE(l.members), "
+            + "(SELECT COUNT(t) FROM Task t WHERE t.todoList = l), "
+            + "(SELECT COUNT(t) FROM Task t WHERE t.todoList = l AND t.completed = true), "
+            + "l.version) "
+            + "FROM TodoList l JOIN l.members m JOIN l.owner o "
+            + "WHERE m.id = :userId AND l.id > :afterId "
+            + "ORDER BY l.id")
+    List<TodoListSummaryRow> findSummariesByMemberId(@Param("userId") Long userId, @Param("afterId") long afterId,
+            Pageable pageable);
+
+    // The version covers the list row; the change stamp, read from idx_todo_list_change_list, covers its tasks
+    // and members. Enough to answer If-None-Match.
+    String CHANGE_STAMP = "(SELECT MAX(c.id) FROM TodoListChange c WHERE c.todoListId = l.id), "
+            + "(SELECT COUNT(c) FROM TodoListChange c WHERE c.todoListId = l.id)";
+
+    // Same page as findRowsByMemberId, without the joins.
+    @Query("SELECT new com.simon.code_lab.dto.projection.ListVersionRow(l.id, l.version, " + CHANGE_STAMP + ") "
+            + "FROM TodoList l JOIN l.members m "
+            + "WHERE m.id = :userId AND l.id > :afterId "
+            + "ORDER BY l.id")
+    List<ListVersionRow> findVersionsByMemberId(@Param("userId") Long userId, @Param("afterId") long afterId,
+            Pageable pageable);
+
+    @Query("SELECT new com.simon.code_lab.dto.projection.ListVersionRow(l.id, l.version, " + CHANGE_STAMP + ") "
+            + "FROM TodoList l WHERE l.id = :listId")
+    Optional<ListVersionRow> findVersionById(@Param("listId") Long listId);
+
+    @Query("SELECT new com.simon.code_lab.dto.projection.MemberRow(l.id, m.id, m.username, m.email) "
+            + "FROM TodoList l JOIN l.members m WHERE l.id IN :listIds ORDER BY l.id, m.id")
+    List<MemberRow> findMemberRowsByListIds(@Param("listIds") Collection<Long> listIds);
+
+    @Query("SELECT new com.simon.code_lab.dto.projection.TaskRow(t.todoList.id, t.id, t.title, t.description, t.completed, t.version) "
+            + "FROM Task t WHERE t.todoList.id IN :listIds ORDER BY t.todoList.id, t.id")
+    List<TaskRow> findTaskRowsByListIds(@Param("listIds") Collection<Long> listIds);
 }
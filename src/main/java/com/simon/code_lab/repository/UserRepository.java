@@ -1,9 +1,17 @@
 package com.simon.code_lab.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.simon.code_lab.model.User;
 
@@ -12,4 +20,36 @@ public interface UserRepository extends CrudRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByVerificationCode(String verificationCode);
     Optional<User> findByUsername(String username);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int updatePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
+
+    @Query("SELECT u.id FROM User u WHERE u.verificationCode IS NOT NULL AND u.verificationExpiration < :now ORDER BY u.id")
+    List<Long> findIdsWithExpiredVerificationCode(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE User u SET u.verificationCode = NULL WHERE u.id IN :ids AND u.verificationExpiration < :now")
+    int clearVerificationCodes(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("SELECT u.id FROM User u WHERE u.enabled = false AND u.verificationExpiration < :cutoff "
+            + "AND NOT EXISTS (SELECT l.id FROM TodoList l WHERE l.owner = u) ORDER BY u.id")
+    List<Long> findStaleUnverifiedIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query(value = "DELETE FROM todo_list_members WHERE user_id IN (:ids)", nativeQuery = true)
+    int deleteMemberships(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id IN :ids AND u.enabled = false")
+    int deleteUnverifiedByIds(@Param("ids") Collection<Long> ids);
 }
@@ -10,8 +10,14 @@ public class LoginResponse {
 
     private long expireIn;
 
-    public LoginResponse(String token, long expireIn) {
+    private String refreshToken;
+
+    private long refreshExpireIn;
+
+    public LoginResponse(String token, long expireIn, String refreshToken, long refreshExpireIn) {
         this.token = token;
         this.expireIn = expireIn;
+        this.refreshToken = refreshToken;
+        this.refreshExpireIn = refreshExpireIn;
     }
 }
@@ -1,51 +1,67 @@
 package com.simon.code_lab.service;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.simon.code_lab.dto.LoginUserDto;
 import com.simon.code_lab.dto.RegisterUserDto;
 import com.simon.code_lab.dto.VerifiyUserDto;
 import com.simon.code_lab.exception.UserNotEnabledException;
+import com.simon.code_lab.model.EmailType;
 import com.simon.code_lab.model.User;
 import com.simon.code_lab.repository.UserRepository;
 
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
 @Service
 public class AuthenticationService {
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
 
-    private final AuthenticationManager authenticationManager;
+    private final EmailOutboxService emailOutboxService;
+
+    private final LoginExecutor loginExecutor;
 
-    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
 
     public AuthenticationService(UserRepository userRepository, PasswordEncoder passwordEncoder,
-            AuthenticationManager authenticationManager, EmailService emailService) {
+            EmailOutboxService emailOutboxService, LoginExecutor loginExecutor,
+            PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authenticationManager = authenticationManager;
-        this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
+        this.loginExecutor = loginExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    // The hash is computed before the transaction opens, so no connection is held while BCrypt runs.
     public User signup(RegisterUserDto registerUserDto) {
+        String rawPassword = registerUserDto.getPassword();
+        String passwordHash = loginExecutor.call("signup", () -> passwordEncoder.encode(rawPassword));
+
         User user = new User();
         user.setUsername(registerUserDto.getUsername());
         user.setEmail(registerUserDto.getEmail());
-        user.setPassword(passwordEncoder.encode(registerUserDto.getPassword()));
+        user.setPassword(passwordHash);
         user.setVerificationCode(generateVerificationCode());
         user.setVerificationExpiration(LocalDateTime.now().plusMinutes(15));
         user.setEnabled(false);
 
-        userRepository.save(user);
-
-        sendVerificationEmail(user);
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.save(user);
+            queueVerificationEmail(user);
+        });
         return user;
     }
 
@@ -57,15 +73,30 @@ public class AuthenticationService {
             throw new UserNotEnabledException("User account is not enableddd");
         }
 
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        user.getUsername(),
-                        loginUserDto.getPassword())
-                        );
+        String rawPassword = loginUserDto.getPassword();
+        String currentHash = user.getPassword();
+        if (!Boolean.TRUE.equals(loginExecutor.call("login", () -> passwordEncoder.matches(rawPassword, currentHash)))) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+
+        if (passwordEncoder.upgradeEncoding(currentHash)) {
+            // Not awaited: a saturated pool drops it, and the next login tries again.
+            loginExecutor.execute("rehash", () -> rehashPassword(user.getId(), currentHash, rawPassword));
+        }
 
         return user;
     }
 
+    // Re-encodes with the configured cost; skipped if the password changed in the meantime. The login has
+    // already succeeded, so a failure is only logged.
+    private void rehashPassword(Long userId, String currentHash, String rawPassword) {
+        try {
+            userRepository.updatePasswordHash(userId, currentHash, passwordEncoder.encode(rawPassword));
+        } catch (RuntimeException e) {
+            log.warn("Rehashing the password of user {} failed", userId, e);
+        }
+    }
+
     public void verifyUser(VerifiyUserDto verifiyUserDto) {
         Optional<User> userOptional = userRepository.findByVerificationCode(verifiyUserDto.getVerificationCode());
         if (userOptional.isPresent()) {
@@ -83,6 +114,7 @@ public class AuthenticationService {
         }
     }
 
+    @Transactional
     public void resendVerificationCode(String email) {
         Optional<User> userOptional = userRepository.findByEmail(email);
         if (userOptional.isPresent()) {
@@ -90,8 +122,8 @@ public class AuthenticationService {
             if (!user.isEnabled()) {
                 user.setVerificationCode(generateVerificationCode());
                 user.setVerificationExpiration(LocalDateTime.now().plusMinutes(15));
-                sendVerificationEmail(user);
                 userRepository.save(user);
+                queueVerificationEmail(user);
             } else {
                 throw new RuntimeException("User account is already enabled");
             }
@@ -100,26 +132,10 @@ public class AuthenticationService {
         }
     }
 
-    public void sendVerificationEmail(User user) {
-        String subject = "Verify your account";
-        String verificationCode = user.getVerificationCode();
-        String htmlMessage = "<html>"
-                + "<body style=\"font-family: Arial, sans-serif;\">"
-                + "<div style=\"background-color: #f5f5f5; padding: 20px;\">"
-                + "<h2 style=\"color: #333;\">Welcome to our app!</h2>"
-                + "<p style=\"font-size: 16px;\">Please enter the verification code below to continue:</p>"
-                + "<div style=\"background-color: #fff; padding: 20px; border-radius: 5px; box-shadow: 0 0 10px rgba(0,0,0,0.1);\">"
-                + "<h3 style=\"color: #333;\">Verification Code:</h3>"
-                + "<p style=\"font-size: 18px; font-weight: bold; color: #007bff;\">" + verificationCode + "</p>"
-                + "</div>"
-                + "</div>"
-                + "</body>"
-                + "</html>";
-        try {
-            emailService.sendVerificationEmail(user.getEmail(), subject, htmlMessage);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to send verification email", e);
-        }
+    // Written to the outbox in the caller's transaction; EmailOutboxDispatcher does the SMTP work.
+    private void queueVerificationEmail(User user) {
+        emailOutboxService.enqueue(EmailType.VERIFICATION, user.getEmail(),
+                Map.of("code", user.getVerificationCode()));
     }
 
     private String generateVerificationCode() {
@@ -0,0 +1,33 @@
+package com.simon.code_lab.service;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.UserRepository;
+import com.simon.code_lab.util.SecurityUtil;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class CurrentUserService {
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+
+    // Reuses the principal set by JwtAuthenticationFilter as a reference, so no SELECT is issued.
+    public User getCurrentUserOrThrow() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated()
+                && auth.getPrincipal() instanceof User principal && principal.getId() != null) {
+            return entityManager.getReference(User.class, principal.getId());
+        }
+
+        String username = SecurityUtil.getAuthenticatedUsername();
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+    }
+}
@@ -0,0 +1,205 @@
+package com.simon.code_lab.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.simon.code_lab.model.OutboxEmail;
+import com.simon.code_lab.repository.OutboxEmailRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+// Drains the email outbox in batches. A batch is claimed in one short transaction (rows move to SENDING with a
+// lease), sent over one SMTP connection with no transaction or connection held, and its results are recorded
+// in a second short transaction. Rows whose lease runs out, e.g. after a crash mid-send, are claimed again.
+@Slf4j
+@Service
+public class EmailOutboxDispatcher {
+    private static final List<OutboxEmail.Status> CLAIMABLE = List.of(OutboxEmail.Status.PENDING,
+            OutboxEmail.Status.SENDING);
+
+    private final OutboxEmailRepository outboxEmailRepository;
+
+    private final EmailService emailService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final long retryBackoff;
+
+    private final long maxRetryBackoff;
+
+    private final long lease;
+
+    private final long sentRetention;
+
+    private final int purgeMaxBatches;
+
+    private final Counter sent;
+
+    private final Counter retried;
+
+    private final Counter dead;
+
+    private final Counter purged;
+
+    public EmailOutboxDispatcher(OutboxEmailRepository outboxEmailRepository, EmailService emailService,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${mail.outbox.batch-size:50}") int batchSize,
+            @Value("${mail.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${mail.outbox.retry-backoff:30000}") long retryBackoff,
+            @Value("${mail.outbox.max-retry-backoff:3600000}") long maxRetryBackoff,
+            @Value("${mail.outbox.lease:300000}") long lease,
+            @Value("${mail.outbox.sent-retention:604800000}") long sentRetention,
+            @Value("${mail.outbox.purge.max-batches:100}") int purgeMaxBatches) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.lease = lease;
+        this.sentRetention = sentRetention;
+        this.purgeMaxBatches = purgeMaxBatches;
+        this.sent = Counter.builder("mail.outbox.sent").register(meterRegistry);
+        this.retried = Counter.builder("mail.outbox.retried").register(meterRegistry);
+        this.dead = Counter.builder("mail.outbox.dead").register(meterRegistry);
+        this.purged = Counter.builder("mail.outbox.purged").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval:5000}",
+            initialDelayString = "${mail.outbox.initial-delay:5000}")
+    public void dispatch() {
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+        } while (claimed == batchSize);
+    }
+
+    // Sent rows are kept for sent-retention, then deleted in batches of batch-size.
+    @Scheduled(fixedDelayString = "${mail.outbox.purge.interval:3600000}",
+            initialDelayString = "${mail.outbox.purge.initial-delay:60000}")
+    public void purgeSent() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(sentRetention * 1_000_000);
+        for (int batch = 0; batch < purgeMaxBatches; batch++) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = outboxEmailRepository.findIdsSentBefore(cutoff, PageRequest.of(0, batchSize));
+                return ids.isEmpty() ? 0 : outboxEmailRepository.deleteByIds(ids);
+            });
+            if (deleted == null || deleted == 0) {
+                return;
+            }
+            purged.increment(deleted);
+            if (deleted < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEmail> claimed = transactionTemplate.execute(status -> claim(now));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Exception> failures = send(claimed);
+        transactionTemplate.executeWithoutResult(status -> record(claimed, failures, now));
+        return claimed.size();
+    }
+
+    private List<OutboxEmail> claim(LocalDateTime now) {
+        List<OutboxEmail> due = outboxEmailRepository.findDue(CLAIMABLE, now, PageRequest.of(0, batchSize));
+        LocalDateTime leaseUntil = now.plusNanos(lease * 1_000_000);
+        for (OutboxEmail email : due) {
+            email.setStatus(OutboxEmail.Status.SENDING);
+            email.setNextAttemptAt(leaseUntil);
+        }
+        return due;
+    }
+
+    // Returns the failures by outbox id; an email missing from the map was sent.
+    private Map<Long, Exception> send(List<OutboxEmail> claimed) {
+        Map<Long, Exception> failures = new HashMap<>();
+        Map<MimeMessage, Long> batch = new LinkedHashMap<>();
+        for (OutboxEmail email : claimed) {
+            try {
+                batch.put(emailService.createHtmlMessage(email.getRecipient(), email.getSubject(),
+                        email.getHtmlBody(), email.getTextBody()), email.getId());
+            } catch (Exception e) {
+                failures.put(email.getId(), e);
+            }
+        }
+
+        try {
+            emailService.sendBatch(new ArrayList<>(batch.keySet()))
+                    .forEach((message, failure) -> failures.put(batch.get(message), failure));
+        } catch (MailException e) {
+            batch.values().forEach(id -> failures.put(id, e));
+        }
+        return failures;
+    }
+
+    private void record(List<OutboxEmail> claimed, Map<Long, Exception> failures, LocalDateTime now) {
+        List<Long> ids = claimed.stream().map(OutboxEmail::getId).toList();
+        for (OutboxEmail email : outboxEmailRepository.findAllById(ids)) {
+            // Another dispatcher took the row over after our lease ran out.
+            if (email.getStatus() != OutboxEmail.Status.SENDING) {
+                continue;
+            }
+            Exception failure = failures.get(email.getId());
+            if (failure != null) {
+                recordFailure(email, failure, now);
+                continue;
+            }
+            email.setStatus(OutboxEmail.Status.SENT);
+            email.setSentAt(LocalDateTime.now());
+            email.setLastError(null);
+            sent.increment();
+        }
+    }
+
+    private void recordFailure(OutboxEmail email, Exception e, LocalDateTime now) {
+        email.setAttempts(email.getAttempts() + 1);
+        email.setLastError(truncate(e.getMessage()));
+
+        if (email.getAttempts() >= maxAttempts) {
+            email.setStatus(OutboxEmail.Status.DEAD);
+            dead.increment();
+            log.error("Giving up on outbox email {} after {} attempts", email.getId(), email.getAttempts(), e);
+            return;
+        }
+
+        long backoff = Math.min(retryBackoff << Math.min(email.getAttempts() - 1, 20), maxRetryBackoff);
+        email.setStatus(OutboxEmail.Status.PENDING);
+        email.setNextAttemptAt(now.plusNanos(backoff * 1_000_000));
+        retried.increment();
+        log.warn("Outbox email {} failed (attempt {}), retrying in {} ms", email.getId(), email.getAttempts(),
+                backoff);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,43 @@
+package com.simon.code_lab.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.simon.code_lab.model.EmailType;
+import com.simon.code_lab.model.OutboxEmail;
+import com.simon.code_lab.repository.OutboxEmailRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+    private final OutboxEmailRepository outboxEmailRepository;
+
+    private final EmailTemplateService emailTemplateService;
+
+    @Transactional
+    public OutboxEmail enqueue(EmailType type, String to, Map<String, String> values) {
+        EmailTemplateService.RenderedEmail rendered = emailTemplateService.render(type, values);
+        return enqueue(to, rendered.subject(), rendered.htmlBody(), rendered.textBody());
+    }
+
+    // Joins the caller's transaction so the email is only queued if the caller commits.
+    @Transactional
+    public OutboxEmail enqueue(String to, String subject, String htmlBody, String textBody) {
+        LocalDateTime now = LocalDateTime.now();
+
+        OutboxEmail email = new OutboxEmail();
+        email.setRecipient(to);
+        email.setSubject(subject);
+        email.setHtmlBody(htmlBody);
+        email.setTextBody(textBody);
+        email.setCreatedAt(now);
+        email.setNextAttemptAt(now);
+
+        return outboxEmailRepository.save(email);
+    }
+}
@@ -1,6 +1,11 @@
 package com.simon.code_lab.service;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
@@ -13,14 +18,36 @@ public class EmailService {
     @Autowired
     private JavaMailSender emailSender;
 
-    public void sendVerificationEmail(String to, String subject, String text) throws MessagingException {
+    public void sendHtmlEmail(String to, String subject, String text) throws MessagingException {
+        emailSender.send(createHtmlMessage(to, subject, text, null));
+    }
+
+    public MimeMessage createHtmlMessage(String to, String subject, String text, String plainText)
+            throws MessagingException {
         MimeMessage message = emailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true);
 
         helper.setTo(to);
         helper.setSubject(subject);
-        helper.setText(text, true);
+        if (plainText != null) {
+            helper.setText(plainText, text);
+        } else {
+            helper.setText(text, true);
+        }
+
+        return message;
+    }
 
-        emailSender.send(message);
+    // Sends all messages over one SMTP connection; returns the messages that could not be sent.
+    public Map<Object, Exception> sendBatch(List<MimeMessage> messages) {
+        if (messages.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            emailSender.send(messages.toArray(MimeMessage[]::new));
+            return Collections.emptyMap();
+        } catch (MailSendException e) {
+            return e.getFailedMessages();
+        }
     }
 }
@@ -0,0 +1,68 @@
+package com.simon.code_lab.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import com.simon.code_lab.model.EmailType;
+import com.simon.code_lab.util.EmailTemplate;
+
+// Every template is parsed when the context starts, so a broken template fails the boot, not a signup.
+@Service
+public class EmailTemplateService {
+    private static final String TEMPLATE_LOCATION = "mail-templates/";
+
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    private final Map<EmailType, CompiledEmail> templates = new EnumMap<>(EmailType.class);
+
+    public EmailTemplateService() {
+        for (EmailType type : EmailType.values()) {
+            templates.put(type, new CompiledEmail(
+                    EmailTemplate.compile(type.getSubject(), false, type.getSlots()),
+                    EmailTemplate.compile(load(type, "html"), true, type.getSlots()),
+                    EmailTemplate.compile(load(type, "txt"), false, type.getSlots())));
+        }
+    }
+
+    public RenderedEmail render(EmailType type, Map<String, String> values) {
+        CompiledEmail compiled = templates.get(type);
+        return new RenderedEmail(
+                render(compiled.subject(), values),
+                render(compiled.html(), values),
+                render(compiled.text(), values));
+    }
+
+    private String render(EmailTemplate template, Map<String, String> values) {
+        StringBuilder buffer = BUFFER.get();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            buffer = new StringBuilder(4096);
+            BUFFER.set(buffer);
+        }
+        buffer.setLength(0);
+        template.renderTo(values, buffer);
+        return buffer.toString();
+    }
+
+    private static String load(EmailType type, String extension) {
+        String path = TEMPLATE_LOCATION + type.getTemplateName() + "." + extension;
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load email template " + path, e);
+        }
+    }
+
+    public record RenderedEmail(String subject, String htmlBody, String textBody) {
+    }
+
+    private record CompiledEmail(EmailTemplate subject, EmailTemplate html, EmailTemplate text) {
+    }
+}
@@ -3,6 +3,7 @@ package com.simon.code_lab.service;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import javax.crypto.SecretKey;
@@ -11,18 +12,49 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.util.TokenDigest;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 
 @Service
 public class JwtService {
-    @Value("${security.jwt.secret}")
-    private String secret;
+    static final String USER_ID_CLAIM = "uid";
+
+    static final String EMAIL_CLAIM = "email";
+
+    static final String ENABLED_CLAIM = "enabled";
+
+    static final String TOKEN_VERSION_CLAIM = "ver";
 
-    @Value("${security.jwt.expiration-time}")
-    private long jwtExpiration;
+    private final long jwtExpiration;
+
+    private final SecretKey signInKey;
+
+    private final JwtParser jwtParser;
+
+    // Verified claims keyed by a SHA-256 digest of the token, evicted when the token expires.
+    private final Cache<String, Claims> verifiedTokens;
+
+    public JwtService(
+            @Value("${security.jwt.secret}") String secret,
+            @Value("${security.jwt.expiration-time}") long jwtExpiration,
+            @Value("${security.jwt.cache.maximum-size:10000}") long cacheMaximumSize) {
+        this.jwtExpiration = jwtExpiration;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.jwtParser = Jwts.parser().verifyWith(signInKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -34,7 +66,14 @@ public class JwtService {
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            claims.put(USER_ID_CLAIM, user.getId());
+            claims.put(EMAIL_CLAIM, user.getEmail());
+            claims.put(ENABLED_CLAIM, user.isEnabled());
+            claims.put(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        }
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(
@@ -57,13 +96,37 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), Jwts.SIG.HS256)
+                .signWith(signInKey, Jwts.SIG.HS256)
                 .compact();
     }
 
+    // Returns null for tokens issued without the user claims.
+    public User extractUser(String token) {
+        final Claims claims = extractAllClaims(token);
+        if (!(claims.get(USER_ID_CLAIM) instanceof Number userId)
+                || !(claims.get(TOKEN_VERSION_CLAIM) instanceof Number tokenVersion)) {
+            return null;
+        }
+
+        User user = new User(claims.getSubject(), claims.get(EMAIL_CLAIM, String.class), null);
+        user.setId(userId.longValue());
+        user.setEnabled(Boolean.TRUE.equals(claims.get(ENABLED_CLAIM, Boolean.class)));
+        user.setTokenVersion(tokenVersion.longValue());
+        return user;
+    }
+
     public boolean isTokenValid(String token, UserDetails userDetails) {
         final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token)
+                && hasCurrentTokenVersion(token, userDetails));
+    }
+
+    private boolean hasCurrentTokenVersion(String token, UserDetails userDetails) {
+        if (!(userDetails instanceof User user)) {
+            return true;
+        }
+        Object tokenVersion = extractClaim(token, claims -> claims.get(TOKEN_VERSION_CLAIM));
+        return !(tokenVersion instanceof Number version) || version.longValue() == user.getTokenVersion();
     }
 
     private boolean isTokenExpired(String token) {
@@ -75,16 +138,28 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return verifiedTokens.get(TokenDigest.sha256(token), key -> jwtParser.parseSignedClaims(token).getPayload());
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
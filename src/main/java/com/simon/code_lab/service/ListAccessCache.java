@@ -0,0 +1,111 @@
+package com.simon.code_lab.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.simon.code_lab.repository.TodoListRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Sorted ids of the lists each user belongs to. Membership changes made on this instance are applied in place
+// once their transaction commits. There is no cross-instance invalidation: a member removed through another
+// instance keeps access here until the entry expires, so the TTL (5 s by default) is that window.
+@Service
+public class ListAccessCache {
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final TodoListRepository todoListRepository;
+
+    private final Cache<Long, long[]> listIdsByUser;
+
+    public ListAccessCache(TodoListRepository todoListRepository, MeterRegistry meterRegistry,
+            @Value("${security.list-access.cache.maximum-bytes:16777216}") long maximumBytes,
+            @Value("${security.list-access.cache.ttl:5000}") long ttl) {
+        this.todoListRepository = todoListRepository;
+        this.listIdsByUser = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((Long userId, long[] listIds) -> ENTRY_OVERHEAD_BYTES + listIds.length * Long.BYTES)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, listIdsByUser, "list-access");
+    }
+
+    public boolean canAccess(Long userId, Long listId) {
+        if (userId == null || listId == null) {
+            return false;
+        }
+        long[] listIds = listIdsByUser.get(userId, this::load);
+        return Arrays.binarySearch(listIds, listId) >= 0;
+    }
+
+    public void grant(Long userId, Long listId) {
+        afterCommit(() -> listIdsByUser.asMap().computeIfPresent(userId, (id, listIds) -> insert(listIds, listId)));
+    }
+
+    public void revoke(Long userId, Long listId) {
+        afterCommit(() -> listIdsByUser.asMap().computeIfPresent(userId, (id, listIds) -> remove(listIds, listId)));
+    }
+
+    public void revokeAll(Collection<Long> userIds, Long listId) {
+        afterCommit(() -> userIds.forEach(userId -> listIdsByUser.asMap()
+                .computeIfPresent(userId, (id, listIds) -> remove(listIds, listId))));
+    }
+
+    private long[] load(Long userId) {
+        List<Long> ids = todoListRepository.findIdsByMemberId(userId);
+        long[] listIds = new long[ids.size()];
+        for (int i = 0; i < listIds.length; i++) {
+            listIds[i] = ids.get(i);
+        }
+        Arrays.sort(listIds);
+        return listIds;
+    }
+
+    private static long[] insert(long[] listIds, long listId) {
+        int index = Arrays.binarySearch(listIds, listId);
+        if (index >= 0) {
+            return listIds;
+        }
+        int insertAt = -index - 1;
+        long[] updated = new long[listIds.length + 1];
+        System.arraycopy(listIds, 0, updated, 0, insertAt);
+        updated[insertAt] = listId;
+        System.arraycopy(listIds, insertAt, updated, insertAt + 1, listIds.length - insertAt);
+        return updated;
+    }
+
+    private static long[] remove(long[] listIds, long listId) {
+        int index = Arrays.binarySearch(listIds, listId);
+        if (index < 0) {
+            return listIds;
+        }
+        long[] updated = new long[listIds.length - 1];
+        System.arraycopy(listIds, 0, updated, 0, index);
+        System.arraycopy(listIds, index + 1, updated, index, listIds.length - index - 1);
+        return updated;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.simon.code_lab.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.simon.code_lab.exception.LoginThrottledException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+// Bounds concurrent BCrypt work: only the hash runs on the pool, the caller keeps its database work, and
+// submissions are rejected once the queue is full. At most pool-size + queue-capacity request threads wait here;
+// background rehashes queue behind them and are dropped when it is full.
+@Service
+public class LoginExecutor {
+    private final ThreadPoolExecutor executor;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter rejected;
+
+    public LoginExecutor(MeterRegistry meterRegistry,
+            @Value("${security.login.pool-size:4}") int poolSize,
+            @Value("${security.login.queue-capacity:64}") int queueCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("login-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.login.queue.depth", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("auth.login.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.login.rejected").register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(String operation, Supplier<T> task) {
+        Timer timer = timer(operation);
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(task), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new LoginThrottledException("Too many login requests, please retry shortly"));
+        }
+    }
+
+    // Waits for the hash; a rejection surfaces as LoginThrottledException.
+    public <T> T call(String operation, Supplier<T> task) {
+        try {
+            return submit(operation, task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Fire-and-forget variant for background work; returns false when the pool is saturated.
+    public boolean execute(String operation, Runnable task) {
+        Timer timer = timer(operation);
+        try {
+            executor.execute(() -> timer.record(task));
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return false;
+        }
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("auth.password.duration")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,100 @@
+package com.simon.code_lab.service;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.simon.code_lab.exception.InvalidRefreshTokenException;
+import com.simon.code_lab.model.RefreshToken;
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.RefreshTokenRepository;
+import com.simon.code_lab.util.TokenDigest;
+
+// Opaque, single-use refresh tokens. Only their SHA-256 is stored; each refresh rotates the token.
+@Service
+public class RefreshTokenService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final TokenVersionService tokenVersionService;
+
+    private final long refreshExpiration;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+            TokenVersionService tokenVersionService,
+            @Value("${security.jwt.refresh.expiration-time:2592000000}") long refreshExpiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenVersionService = tokenVersionService;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    @Transactional
+    public String issue(User user) {
+        return create(user, UUID.randomUUID().toString());
+    }
+
+    // A token presented a second time means it leaked: the whole family and the user's JWTs are revoked,
+    // and that revocation must commit even though the request fails.
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+
+        RefreshToken token = refreshTokenRepository.findByTokenHashWithUser(TokenDigest.sha256(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+
+        if (token.isRevoked()) {
+            throw new InvalidRefreshTokenException("Refresh token revoked");
+        }
+        if (token.getExpiresAt().isBefore(now)) {
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            tokenVersionService.revokeTokens(token.getUser().getId());
+            throw new InvalidRefreshTokenException("Refresh token reuse detected");
+        }
+
+        User user = token.getUser();
+        if (!user.isEnabled()) {
+            throw new InvalidRefreshTokenException("User account is not enabled");
+        }
+        return new Rotation(user, create(user, token.getFamilyId()));
+    }
+
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.revokeAllForUser(userId);
+    }
+
+    public long getExpiration() {
+        return refreshExpiration;
+    }
+
+    private String create(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(TokenDigest.sha256(rawToken));
+        token.setFamilyId(familyId);
+        token.setUser(user);
+        token.setCreatedAt(now);
+        token.setExpiresAt(now.plusNanos(refreshExpiration * 1_000_000));
+        refreshTokenRepository.save(token);
+
+        return rawToken;
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.simon.code_lab.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simon.code_lab.dto.mapper.TodoListMapper;
+import com.simon.code_lab.dto.projection.TaskRow;
+import com.simon.code_lab.repository.TaskRepository;
+import com.simon.code_lab.util.CsvWriter;
+
+import lombok.RequiredArgsConstructor;
+
+// Streams a list's tasks from a database cursor to the response, so heap use does not depend on the list size.
+@Service
+@RequiredArgsConstructor
+public class TaskExportService {
+    public enum Format {
+        JSON("application/json", "json"),
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format fromParam(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format " + value);
+            }
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final TaskRepository taskRepository;
+
+    private final TaskService taskService;
+
+    private final ObjectMapper objectMapper;
+
+    private final TaskToggleBuffer taskToggleBuffer;
+
+    public void checkAccess(Long todoListId) {
+        taskService.ensureCanAccessList(todoListId);
+    }
+
+    // Called before exportTasks, outside its transaction: the pending toggles of the list are written in a short
+    // transaction of their own, so no row lock is held while the export streams.
+    public void flushPendingToggles(Long todoListId) {
+        taskToggleBuffer.flushList(todoListId);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportTasks(Long todoListId, Format format, OutputStream out) throws IOException {
+        taskService.ensureCanAccessList(todoListId);
+        try (Stream<TaskRow> rows = taskRepository.streamByTodoListId(todoListId)) {
+            return switch (format) {
+                case JSON -> writeJson(rows.iterator(), out);
+                case NDJSON -> writeNdjson(rows.iterator(), out);
+                case CSV -> writeCsv(rows.iterator(), out);
+            };
+        }
+    }
+
+    private long writeJson(Iterator<TaskRow> rows, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartArray();
+        generator.flush();
+        long count = 0;
+        while (rows.hasNext()) {
+            generator.writeObject(TodoListMapper.toTaskDto(rows.next()));
+            if (++count % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        }
+        generator.writeEndArray();
+        generator.close();
+        return count;
+    }
+
+    private long writeNdjson(Iterator<TaskRow> rows, OutputStream out) throws IOException {
+        long count = 0;
+        while (rows.hasNext()) {
+            out.write(objectMapper.writeValueAsBytes(TodoListMapper.toTaskDto(rows.next())));
+            out.write('\n');
+            if (++count % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return count;
+    }
+
+    private long writeCsv(Iterator<TaskRow> rows, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        csv.writeRecord("id", "title", "description", "completed");
+        csv.flush();
+        long count = 0;
+        while (rows.hasNext()) {
+            TaskRow row = rows.next();
+            csv.writeRecord(String.valueOf(row.id()), row.title(), row.description(), String.valueOf(row.completed()));
+            if (++count % FLUSH_EVERY == 0) {
+                csv.flush();
+            }
+        }
+        csv.flush();
+        return count;
+    }
+}
@@ -0,0 +1,245 @@
+package com.simon.code_lab.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simon.code_lab.dto.TaskImportEvent;
+import com.simon.code_lab.dto.request.CreateTaskRequest;
+import com.simon.code_lab.util.CsvReader;
+
+import lombok.RequiredArgsConstructor;
+
+// Imports an NDJSON or CSV stream in chunks of TaskService.MAX_BATCH_SIZE, one transaction each; chunks already
+// written stay committed if the import aborts.
+@Service
+@RequiredArgsConstructor
+public class TaskImportService {
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+        void onEvent(TaskImportEvent event) throws IOException;
+    }
+
+    static final int MAX_RECORD_LENGTH = 8192;
+
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private final TaskService taskService;
+
+    private final ObjectMapper objectMapper;
+
+    // Fails before anything is written when the list is missing or the user is not a member.
+    public void checkAccess(Long todoListId) {
+        taskService.ensureCanAccessList(todoListId);
+    }
+
+    public TaskImportEvent importTasks(Long todoListId, Format format, Reader body, Listener listener)
+            throws IOException {
+        Import state = new Import(todoListId, listener);
+        String abortedBy = null;
+        try {
+            try {
+                if (format == Format.CSV) {
+                    readCsv(body, state);
+                } else {
+                    readNdjson(body, state);
+                }
+            } catch (IOException e) {
+                // The body broke off: the records parsed so far are still written.
+                abortedBy = Objects.requireNonNullElse(e.getMessage(), "Request body could not be read");
+            }
+            state.flush();
+        } catch (RuntimeException e) {
+            // The 200 report has already started, so a bad CSV header or a failed chunk (access revoked, list
+            // deleted, database error) ends it with an aborted line instead of cutting the stream.
+            state.chunk.clear();
+            abortedBy = Objects.requireNonNullElse(e.getMessage(), "Import failed");
+        }
+
+        TaskImportEvent last = abortedBy != null
+                ? TaskImportEvent.aborted(state.line, abortedBy, state.processed, state.imported, state.failed)
+                : TaskImportEvent.done(state.processed, state.imported, state.failed);
+        listener.onEvent(last);
+        return last;
+    }
+
+    private void readNdjson(Reader body, Import state) throws IOException {
+        BufferedReader reader = body instanceof BufferedReader buffered ? buffered : new BufferedReader(body);
+        StringBuilder line = new StringBuilder();
+        long lineNumber = 0;
+        boolean more = true;
+        while (more) {
+            lineNumber++;
+            line.setLength(0);
+            boolean tooLong = false;
+            int c;
+            while ((c = reader.read()) != -1 && c != '\n') {
+                if (line.length() < MAX_RECORD_LENGTH) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+            }
+            more = c != -1;
+            if (tooLong) {
+                state.reject(lineNumber, "Record exceeds " + MAX_RECORD_LENGTH + " characters");
+            } else if (!line.toString().isBlank()) {
+                state.line = lineNumber;
+                parseJson(line.toString(), state);
+            }
+        }
+    }
+
+    private void parseJson(String line, Import state) throws IOException {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            state.reject(state.line, "Invalid JSON");
+            return;
+        }
+        if (!node.isObject()) {
+            state.reject(state.line, "Expected a JSON object");
+            return;
+        }
+        JsonNode completed = node.path("completed");
+        if (!completed.isMissingNode() && !completed.isNull() && !completed.isBoolean()) {
+            state.reject(state.line, "completed must be true or false");
+            return;
+        }
+        state.accept(text(node.get("title")), text(node.get("description")), completed.asBoolean(false));
+    }
+
+    private void readCsv(Reader body, Import state) throws IOException {
+        CsvReader reader = new CsvReader(body, MAX_RECORD_LENGTH);
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            return;
+        }
+        state.line = reader.getRecordLine();
+        if (reader.isRecordTooLong()) {
+            throw new IllegalArgumentException("CSV header exceeds " + MAX_RECORD_LENGTH + " characters");
+        }
+        int titleColumn = indexOf(header, "title");
+        int descriptionColumn = indexOf(header, "description");
+        int completedColumn = indexOf(header, "completed");
+        if (titleColumn < 0) {
+            throw new IllegalArgumentException("CSV header must contain a title column");
+        }
+
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            state.line = reader.getRecordLine();
+            if (reader.isRecordTooLong()) {
+                state.reject(state.line, "Record exceeds " + MAX_RECORD_LENGTH + " characters");
+                continue;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            if (record.size() != header.size()) {
+                state.reject(state.line, "Expected " + header.size() + " fields but found " + record.size());
+                continue;
+            }
+            String completed = completedColumn < 0 ? "" : record.get(completedColumn).trim().toLowerCase(Locale.ROOT);
+            if (!completed.isEmpty() && !completed.equals("true") && !completed.equals("false")) {
+                state.reject(state.line, "completed must be true or false");
+                continue;
+            }
+            state.accept(record.get(titleColumn),
+                    descriptionColumn < 0 ? null : record.get(descriptionColumn),
+                    completed.equals("true"));
+        }
+    }
+
+    private static int indexOf(List<String> header, String column) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    private final class Import {
+        private final Long todoListId;
+
+        private final Listener listener;
+
+        private final List<CreateTaskRequest> chunk = new ArrayList<>(TaskService.MAX_BATCH_SIZE);
+
+        private long line;
+
+        private long processed;
+
+        private long imported;
+
+        private long failed;
+
+        Import(Long todoListId, Listener listener) {
+            this.todoListId = todoListId;
+            this.listener = listener;
+        }
+
+        void accept(String title, String description, boolean completed) throws IOException {
+            if (title == null || title.isBlank()) {
+                reject(line, "title is required");
+                return;
+            }
+            if (title.length() > MAX_TITLE_LENGTH) {
+                reject(line, "title exceeds " + MAX_TITLE_LENGTH + " characters");
+                return;
+            }
+            if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+                reject(line, "description exceeds " + MAX_DESCRIPTION_LENGTH + " characters");
+                return;
+            }
+
+            CreateTaskRequest request = new CreateTaskRequest();
+            request.setListId(todoListId);
+            request.setTitle(title);
+            request.setDescription(description);
+            request.setCompleted(completed);
+            chunk.add(request);
+            processed++;
+            if (chunk.size() == TaskService.MAX_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) throws IOException {
+            processed++;
+            failed++;
+            listener.onEvent(TaskImportEvent.rowError(line, message));
+        }
+
+        void flush() throws IOException {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            taskService.addTasks(chunk);
+            imported += chunk.size();
+            chunk.clear();
+            listener.onEvent(TaskImportEvent.progress(processed, imported, failed));
+        }
+    }
+}
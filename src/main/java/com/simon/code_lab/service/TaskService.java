@@ -1,101 +1,307 @@
 package com.simon.code_lab.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.simon.code_lab.config.PaginationProperties;
+import com.simon.code_lab.dto.CursorPage;
 import com.simon.code_lab.dto.TaskDto;
+import com.simon.code_lab.dto.TaskFilter;
+import com.simon.code_lab.dto.TaskPatchDto;
+import com.simon.code_lab.dto.TaskSearchResultDto;
 import com.simon.code_lab.dto.mapper.TodoListMapper;
+import com.simon.code_lab.dto.projection.TaskRow;
+import com.simon.code_lab.dto.projection.TaskSearchRow;
+import com.simon.code_lab.dto.request.BatchUpdateTaskRequest;
+import com.simon.code_lab.dto.request.CreateTaskRequest;
 import com.simon.code_lab.exception.AccessDeniedException;
+import com.simon.code_lab.exception.InvalidCursorException;
+import com.simon.code_lab.exception.PreconditionFailedException;
 import com.simon.code_lab.exception.TaskNotFoundException;
 import com.simon.code_lab.exception.TodoListNotFoundException;
 import com.simon.code_lab.model.Task;
-import com.simon.code_lab.model.TodoList;
 import com.simon.code_lab.model.User;
 import com.simon.code_lab.repository.TaskRepository;
+import com.simon.code_lab.repository.TaskSearchRepository;
+import com.simon.code_lab.repository.TodoListChangeRepository;
 import com.simon.code_lab.repository.TodoListRepository;
-import com.simon.code_lab.repository.UserRepository;
-import com.simon.code_lab.util.SecurityUtil;
+import com.simon.code_lab.util.CursorCodec;
 
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class TaskService {
+    private static final int MAX_SEARCH_QUERY_LENGTH = 200;
+
+    static final int MAX_BATCH_SIZE = 500;
+
     private final TaskRepository taskRepository;
+    private final TaskSearchRepository taskSearchRepository;
     private final TodoListRepository todoListRepository;
-    private final UserRepository userRepository;
+    private final TodoListChangeRepository todoListChangeRepository;
+    private final CurrentUserService currentUserService;
+    private final ListAccessCache listAccessCache;
+    private final PaginationProperties paginationProperties;
+    private final TaskToggleBuffer taskToggleBuffer;
 
     private User getCurrentUserOrThrow() {
-        String username = SecurityUtil.getAuthenticatedUsername();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        return currentUserService.getCurrentUserOrThrow();
+    }
+
+    private void ensureUserIsMember(Long todoListId, User user) {
+        if (!listAccessCache.canAccess(user.getId(), todoListId)) {
+            throw new AccessDeniedException("User is not a member of this list");
+        }
     }
 
-    private void ensureUserIsMember(TodoList list, User user) {
-        if (!list.getMembers().contains(user)) {
+    // The existence check only runs on the failure path, to tell a 404 from a 403.
+    private void ensureListExistsAndUserIsMember(Long todoListId, User user) {
+        if (!listAccessCache.canAccess(user.getId(), todoListId)) {
+            if (!todoListRepository.existsById(todoListId)) {
+                throw new TodoListNotFoundException(todoListId);
+            }
             throw new AccessDeniedException("User is not a member of this list");
         }
     }
 
+    public void ensureCanAccessList(Long todoListId) {
+        ensureListExistsAndUserIsMember(todoListId, getCurrentUserOrThrow());
+    }
+
     @Transactional
     public TaskDto addTask(Long todoListId, String title, String description) {
         User user = getCurrentUserOrThrow();
-        TodoList todoList = todoListRepository.findById(todoListId)
-                .orElseThrow(() -> new TodoListNotFoundException(todoListId));
-
-        ensureUserIsMember(todoList, user);
+        ensureListExistsAndUserIsMember(todoListId, user);
 
         Task task = new Task();
         task.setTitle(title);
         task.setDescription(description);
-        task.setTodoList(todoList);
+        task.setTodoList(todoListRepository.getReferenceById(todoListId));
+
+        TaskDto created = TodoListMapper.toTaskDto(taskRepository.save(task));
+        todoListChangeRepository.record(List.of(todoListId));
+        return created;
+    }
+
+    // One transaction; inserts are sent as JDBC batches thanks to the pooled task sequence.
+    @Transactional
+    public List<TaskDto> addTasks(List<CreateTaskRequest> requests) {
+        ensureBatchSize(requests);
+        User user = getCurrentUserOrThrow();
+        List<Long> todoListIds = requests.stream().map(CreateTaskRequest::getListId).distinct().toList();
+        todoListIds.forEach(todoListId -> ensureListExistsAndUserIsMember(todoListId, user));
+
+        List<Task> tasks = new ArrayList<>(requests.size());
+        for (CreateTaskRequest request : requests) {
+            Task task = new Task();
+            task.setTitle(request.getTitle());
+            task.setDescription(request.getDescription());
+            task.setCompleted(request.isCompleted());
+            task.setTodoList(todoListRepository.getReferenceById(request.getListId()));
+            tasks.add(task);
+        }
+
+        List<TaskDto> created = taskRepository.saveAll(tasks).stream().map(TodoListMapper::toTaskDto).toList();
+        todoListChangeRepository.record(todoListIds);
+        return created;
+    }
+
+    // Loads every task with one query; the updates are flushed as JDBC batches before mapping,
+    // so the returned versions are the new ones.
+    @Transactional
+    public List<TaskDto> updateTasks(List<BatchUpdateTaskRequest> requests) {
+        ensureBatchSize(requests);
+        User user = getCurrentUserOrThrow();
+        List<Long> taskIds = requests.stream().map(BatchUpdateTaskRequest::getId).toList();
+        taskToggleBuffer.flushTasks(taskIds);
+        Map<Long, Task> tasks = findTasksForMember(taskIds, user);
+
+        List<Task> updated = new ArrayList<>(requests.size());
+        for (BatchUpdateTaskRequest request : requests) {
+            Task task = tasks.get(request.getId());
+            task.setTitle(request.getTitle());
+            task.setDescription(request.getDescription());
+            task.setCompleted(request.isCompleted());
+            updated.add(task);
+        }
+        taskRepository.flush();
+        todoListChangeRepository.record(listIdsOf(tasks.values()));
+        return updated.stream().map(TodoListMapper::toTaskDto).toList();
+    }
+
+    @Transactional
+    public void deleteTasks(List<Long> taskIds) {
+        ensureBatchSize(taskIds);
+        User user = getCurrentUserOrThrow();
+        Map<Long, Task> tasks = findTasksForMember(taskIds, user);
+
+        taskRepository.deleteAllInBatch(tasks.values());
+        todoListChangeRepository.record(listIdsOf(tasks.values()));
+    }
+
+    private static List<Long> listIdsOf(Collection<Task> tasks) {
+        return tasks.stream().map(task -> task.getTodoList().getId()).distinct().toList();
+    }
+
+    private Map<Long, Task> findTasksForMember(List<Long> taskIds, User user) {
+        Map<Long, Task> tasks = new HashMap<>();
+        for (Task task : taskRepository.findAllById(taskIds)) {
+            tasks.put(task.getId(), task);
+        }
+        for (Long taskId : taskIds) {
+            if (!tasks.containsKey(taskId)) {
+                throw new TaskNotFoundException(taskId);
+            }
+        }
+        listIdsOf(tasks.values()).forEach(todoListId -> ensureUserIsMember(todoListId, user));
+        return tasks;
+    }
+
+    private static void ensureBatchSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Batch must not be empty");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must not exceed " + MAX_BATCH_SIZE);
+        }
+    }
+
+    // Read-write: flushing the toggle buffer writes in this transaction.
+    @Transactional
+    public CursorPage<TaskDto> getTasksForList(Long todoListId, TaskFilter filter, String cursor, Integer size) {
+        User user = getCurrentUserOrThrow();
+        ensureListExistsAndUserIsMember(todoListId, user);
+        taskToggleBuffer.flushList(todoListId);
 
-        return TodoListMapper.toTaskDto(taskRepository.save(task));
+        boolean byTitle = filter.sort() == TaskFilter.Sort.TITLE;
+        int pageSize = paginationProperties.taskPageSize(size);
+        List<TaskRow> rows = taskRepository.findPage(todoListId, filter, CursorCodec.decode(cursor),
+                byTitle ? CursorCodec.decodeSortKey(cursor) : null, pageSize + 1);
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            TaskRow last = rows.get(pageSize - 1);
+            nextCursor = byTitle
+                    ? CursorCodec.encode(last.id(), Task.toTitleKey(last.title()))
+                    : CursorCodec.encode(last.id());
+        }
+        return new CursorPage<>(rows.stream().map(TodoListMapper::toTaskDto).toList(), nextCursor);
     }
 
-    @Transactional(readOnly = true)
-    public List<TaskDto> getTasksForList(Long todoListId) {
+    @Transactional
+    public CursorPage<TaskSearchResultDto> searchTasks(String query, String cursor, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        if (query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query is too long");
+        }
         User user = getCurrentUserOrThrow();
-        TodoList todoList = todoListRepository.findById(todoListId)
-                .orElseThrow(() -> new TodoListNotFoundException(todoListId));
+        taskToggleBuffer.flushMember(user.getId());
+
+        int pageSize = paginationProperties.searchPageSize(size);
+        List<TaskSearchRow> rows = taskSearchRepository.search(user.getId(), query, decodeRank(cursor),
+                CursorCodec.decode(cursor), pageSize + 1);
 
-        ensureUserIsMember(todoList, user);
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            TaskSearchRow last = rows.get(pageSize - 1);
+            nextCursor = CursorCodec.encode(last.id(), Float.toString(last.rank()));
+        }
+        return new CursorPage<>(rows.stream().map(TodoListMapper::toTaskSearchResultDto).toList(), nextCursor);
+    }
 
-        return taskRepository.findByTodoList(todoList)
-                .stream()
-                .map(TodoListMapper::toTaskDto)
-                .collect(Collectors.toList());
+    private static Float decodeRank(String cursor) {
+        String rank = CursorCodec.decodeSortKey(cursor);
+        if (rank == null) {
+            return null;
+        }
+        try {
+            return Float.valueOf(rank);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(cursor);
+        }
     }
 
+    // expectedVersion comes from If-Match; null means an unconditional write. Either way the UPDATE
+    // is guarded by the version read here, so a concurrent write fails instead of being overwritten.
     @Transactional
-    public TaskDto updateTask(Long taskId, String title, String description, boolean completed) {
+    public TaskDto updateTask(Long taskId, String title, String description, boolean completed,
+            Long expectedVersion) {
         User user = getCurrentUserOrThrow();
+        taskToggleBuffer.flushTasks(List.of(taskId));
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new TaskNotFoundException(taskId));
 
-        TodoList todoList = task.getTodoList();
-        ensureUserIsMember(todoList, user);
+        ensureUserIsMember(task.getTodoList().getId(), user);
+        ensureVersion(task, expectedVersion);
 
         task.setTitle(title);
         task.setDescription(description);
         task.setCompleted(completed);
 
-        return TodoListMapper.toTaskDto(taskRepository.save(task));
+        TaskDto updated = TodoListMapper.toTaskDto(taskRepository.saveAndFlush(task));
+        todoListChangeRepository.record(List.of(task.getTodoList().getId()));
+        return updated;
     }
 
     @Transactional
-    public void deleteTask(Long taskId) {
+    public void deleteTask(Long taskId, Long expectedVersion) {
         User user = getCurrentUserOrThrow();
+        taskToggleBuffer.flushTasks(List.of(taskId));
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new TaskNotFoundException(taskId));
 
-        TodoList todoList = task.getTodoList();
-        ensureUserIsMember(todoList, user);
+        ensureUserIsMember(task.getTodoList().getId(), user);
+        ensureVersion(task, expectedVersion);
 
         taskRepository.delete(task);
+        todoListChangeRepository.record(List.of(task.getTodoList().getId()));
+    }
+
+    // One UPDATE on the task and one change row for its list. The checks behind a 404, 403 or 412
+    // only run when nothing was updated. Plain toggles go through the write-behind buffer when enabled.
+    @Transactional
+    public TaskPatchDto patchTask(Long taskId, String title, String description, Boolean completed,
+            Long expectedVersion) {
+        if (title == null && description == null && completed == null) {
+            throw new IllegalArgumentException("Nothing to update");
+        }
+        User user = getCurrentUserOrThrow();
+        if (taskToggleBuffer.isEnabled() && title == null && description == null && expectedVersion == null) {
+            taskToggleBuffer.toggle(taskId, user.getId(), completed);
+            return new TaskPatchDto(taskId, null, null, completed, null);
+        }
+        taskToggleBuffer.flushTasks(List.of(taskId));
+
+        int updated = taskRepository.patch(taskId, user.getId(), title, title == null ? null : Task.toTitleKey(title),
+                description, completed, expectedVersion);
+        if (updated == 0) {
+            Task task = taskRepository.findById(taskId)
+                    .orElseThrow(() -> new TaskNotFoundException(taskId));
+            if (!todoListRepository.existsByIdAndMembersId(task.getTodoList().getId(), user.getId())) {
+                throw new AccessDeniedException("User is not a member of this list");
+            }
+            throw new PreconditionFailedException("Task", taskId);
+        }
+        todoListChangeRepository.recordByTaskId(taskId);
+
+        return new TaskPatchDto(taskId, title, description, completed,
+                expectedVersion == null ? null : expectedVersion + 1);
+    }
+
+    private static void ensureVersion(Task task, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != task.getVersion()) {
+            throw new PreconditionFailedException("Task", task.getId());
+        }
     }
 }
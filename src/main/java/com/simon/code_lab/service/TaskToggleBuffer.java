@@ -0,0 +1,234 @@
+package com.simon.code_lab.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.simon.code_lab.exception.AccessDeniedException;
+import com.simon.code_lab.exception.TaskNotFoundException;
+import com.simon.code_lab.repository.TaskRepository;
+import com.simon.code_lab.repository.TodoListChangeRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Opt-in write-behind for completion toggles: toggles of a task within one flush interval collapse into a
+// single write. Reads and synchronous writes flush the pending toggles of their lists first, inside their own
+// transaction, so callers always read their own writes without taking a second connection.
+@Slf4j
+@Service
+public class TaskToggleBuffer {
+    private static final int WRITE_CHUNK_SIZE = 500;
+
+    private record PendingToggle(boolean completed, long sequence) {
+    }
+
+    private final TaskRepository taskRepository;
+
+    private final TodoListChangeRepository todoListChangeRepository;
+
+    private final ListAccessCache listAccessCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    // Pending toggles by list, then by task. A list's map is only changed inside pending.compute.
+    private final Map<Long, Map<Long, PendingToggle>> pending = new ConcurrentHashMap<>();
+
+    private final Map<Long, Long> listIdByTask = new ConcurrentHashMap<>();
+
+    // Sequence of the last drained toggle of each task whose flush has not completed yet. A rolled back flush
+    // only puts a toggle back if no later one was drained meanwhile, which may already be committed.
+    private final Map<Long, Long> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Held from the drain to the last UPDATE, so the row locks order two flushes of a list as they drained.
+    // Weak values: a list's lock lives as long as a flush holds it.
+    private final LoadingCache<Long, ReentrantLock> flushLocks = Caffeine.newBuilder()
+            .weakValues()
+            .build(listId -> new ReentrantLock());
+
+    private final Counter coalesced;
+
+    private final Counter flushed;
+
+    public TaskToggleBuffer(TaskRepository taskRepository, TodoListChangeRepository todoListChangeRepository,
+            ListAccessCache listAccessCache, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${tasks.toggle-buffer.enabled:false}") boolean enabled) {
+        this.taskRepository = taskRepository;
+        this.todoListChangeRepository = todoListChangeRepository;
+        this.listAccessCache = listAccessCache;
+        // Joins the caller's transaction; only the scheduled and shutdown flushes start their own.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.coalesced = Counter.builder("tasks.toggle-buffer.coalesced").register(meterRegistry);
+        this.flushed = Counter.builder("tasks.toggle-buffer.flushed").register(meterRegistry);
+        Gauge.builder("tasks.toggle-buffer.pending", listIdByTask, Map::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Access is checked now; only the write is deferred.
+    public void toggle(Long taskId, Long userId, boolean completed) {
+        Long listId = listIdByTask.get(taskId);
+        if (listId == null) {
+            listId = taskRepository.findListIdById(taskId).orElseThrow(() -> new TaskNotFoundException(taskId));
+        }
+        if (!listAccessCache.canAccess(userId, listId)) {
+            throw new AccessDeniedException("User is not a member of this list");
+        }
+        PendingToggle toggle = new PendingToggle(completed, sequence.incrementAndGet());
+        pending.compute(listId, (id, toggles) -> {
+            Map<Long, PendingToggle> updated = toggles != null ? toggles : new HashMap<>();
+            if (updated.put(taskId, toggle) != null) {
+                coalesced.increment();
+            }
+            listIdByTask.put(taskId, id);
+            return updated;
+        });
+    }
+
+    public void flushTasks(Collection<Long> taskIds) {
+        if (!pending.isEmpty()) {
+            flush(taskIds.stream().map(listIdByTask::get).filter(Objects::nonNull).toList());
+        }
+    }
+
+    public void flushList(Long listId) {
+        if (pending.containsKey(listId)) {
+            flush(List.of(listId));
+        }
+    }
+
+    // One access check per list with pending toggles, not per toggle.
+    public void flushMember(Long userId) {
+        if (!pending.isEmpty()) {
+            flush(pending.keySet().stream().filter(listId -> listAccessCache.canAccess(userId, listId)).toList());
+        }
+    }
+
+    // One transaction per list.
+    public void flushAll() {
+        for (Long listId : pending.keySet().stream().sorted().toList()) {
+            flush(List.of(listId));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.toggle-buffer.flush-interval:1000}",
+            initialDelayString = "${tasks.toggle-buffer.initial-delay:1000}")
+    public void flushPending() {
+        try {
+            flushAll();
+        } catch (RuntimeException e) {
+            log.warn("Flushing {} pending task toggles failed, retrying on the next run", listIdByTask.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushAll();
+    }
+
+    // Lists are flushed in id order, so two transactions flushing several lists cannot wait on each other's
+    // row locks while holding a list lock the other needs.
+    private void flush(Collection<Long> listIds) {
+        if (listIds.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new IllegalStateException("Pending task toggles cannot be flushed from a read-only transaction");
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                listIds.stream().distinct().sorted().forEach(this::drainAndWrite));
+    }
+
+    private void drainAndWrite(Long listId) {
+        ReentrantLock lock = flushLocks.get(listId);
+        lock.lock();
+        try {
+            Map<Long, PendingToggle> drained = drain(listId);
+            if (drained == null) {
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    complete(listId, drained, status == STATUS_COMMITTED);
+                }
+            });
+            write(listId, drained);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<Long, PendingToggle> drain(Long listId) {
+        AtomicReference<Map<Long, PendingToggle>> drained = new AtomicReference<>();
+        pending.computeIfPresent(listId, (id, toggles) -> {
+            toggles.forEach((taskId, toggle) -> {
+                listIdByTask.remove(taskId, id);
+                inFlight.put(taskId, toggle.sequence());
+            });
+            drained.set(toggles);
+            return null;
+        });
+        return drained.get();
+    }
+
+    // Toggles are put back inside pending.compute, like drain, so no flush of the list can drain in between.
+    private void complete(Long listId, Map<Long, PendingToggle> drained, boolean committed) {
+        if (committed) {
+            drained.forEach((taskId, toggle) -> inFlight.remove(taskId, toggle.sequence()));
+            flushed.increment(drained.size());
+            return;
+        }
+        pending.compute(listId, (id, toggles) -> {
+            Map<Long, PendingToggle> restored = toggles != null ? toggles : new HashMap<>();
+            drained.forEach((taskId, toggle) -> {
+                if (inFlight.remove(taskId, toggle.sequence()) && restored.putIfAbsent(taskId, toggle) == null) {
+                    listIdByTask.put(taskId, id);
+                }
+            });
+            return restored.isEmpty() ? null : restored;
+        });
+    }
+
+    // One UPDATE per value and chunk, plus one change row for the list.
+    private void write(Long listId, Map<Long, PendingToggle> drained) {
+        Map<Boolean, List<Long>> taskIdsByValue = new HashMap<>();
+        drained.forEach((taskId, toggle) ->
+                taskIdsByValue.computeIfAbsent(toggle.completed(), value -> new ArrayList<>()).add(taskId));
+        taskIdsByValue.forEach((completed, taskIds) -> {
+            for (int from = 0; from < taskIds.size(); from += WRITE_CHUNK_SIZE) {
+                taskRepository.setCompleted(taskIds.subList(from, Math.min(from + WRITE_CHUNK_SIZE, taskIds.size())),
+                        completed);
+            }
+        });
+        todoListChangeRepository.record(List.of(listId));
+    }
+}
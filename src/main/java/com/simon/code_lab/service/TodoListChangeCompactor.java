@@ -0,0 +1,62 @@
+package com.simon.code_lab.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.simon.code_lab.repository.TodoListChangeRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Keeps the list tags cheap: replaces the change rows of each list with a single new one. The new row's id
+// was never part of a tag, and between two runs a list only gains rows, so a tag never comes back.
+@Service
+public class TodoListChangeCompactor {
+    private final TodoListChangeRepository todoListChangeRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final int maxBatches;
+
+    private final Counter listsCompacted;
+
+    public TodoListChangeCompactor(TodoListChangeRepository todoListChangeRepository,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${todolists.changes.compact.batch-size:500}") int batchSize,
+            @Value("${todolists.changes.compact.max-batches:100}") int maxBatches) {
+        this.todoListChangeRepository = todoListChangeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.listsCompacted = Counter.builder("todolists.changes.compacted").register(meterRegistry);
+    }
+
+    // Rows inserted by writes still running are above lastId, or commit later and add to the count: either way
+    // they survive and still change the tag.
+    @Scheduled(fixedDelayString = "${todolists.changes.compact.interval:60000}",
+            initialDelayString = "${todolists.changes.compact.initial-delay:60000}")
+    public void compact() {
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer compacted = transactionTemplate.execute(status -> {
+                List<Long> listIds = todoListChangeRepository.findListIdsToCompact(PageRequest.of(0, batchSize));
+                if (!listIds.isEmpty()) {
+                    todoListChangeRepository.deleteUpTo(listIds, todoListChangeRepository.findLastId());
+                    todoListChangeRepository.record(listIds);
+                    listsCompacted.increment(listIds.size());
+                }
+                return listIds.size();
+            });
+            if (compacted == null || compacted < batchSize) {
+                return;
+            }
+        }
+    }
+}
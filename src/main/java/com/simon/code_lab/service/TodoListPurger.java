@@ -0,0 +1,108 @@
+package com.simon.code_lab.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.simon.code_lab.repository.TaskRepository;
+import com.simon.code_lab.repository.TodoListChangeRepository;
+import com.simon.code_lab.repository.TodoListRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Deletes lists with set-based statements. Small lists go at once; larger ones are only marked deleted
+// and their tasks are removed in the background, one short transaction per batch.
+@Service
+public class TodoListPurger {
+    private static final int LISTS_PER_RUN = 10;
+
+    private final TodoListRepository todoListRepository;
+
+    private final TaskRepository taskRepository;
+
+    private final TodoListChangeRepository todoListChangeRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long syncMaxTasks;
+
+    private final int batchSize;
+
+    private final int maxBatches;
+
+    private final Counter tasksPurged;
+
+    private final Counter listsPurged;
+
+    public TodoListPurger(TodoListRepository todoListRepository, TaskRepository taskRepository,
+            TodoListChangeRepository todoListChangeRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${todolists.delete.sync-max-tasks:1000}") long syncMaxTasks,
+            @Value("${todolists.purge.batch-size:1000}") int batchSize,
+            @Value("${todolists.purge.max-batches:100}") int maxBatches) {
+        this.todoListRepository = todoListRepository;
+        this.taskRepository = taskRepository;
+        this.todoListChangeRepository = todoListChangeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.syncMaxTasks = syncMaxTasks;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.tasksPurged = Counter.builder("todolists.purge.tasks.deleted").register(meterRegistry);
+        this.listsPurged = Counter.builder("todolists.purge.lists.deleted").register(meterRegistry);
+    }
+
+    // Memberships go first, so the list disappears for every member whichever path is taken.
+    // Returns false when the tasks are left to the background purge.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean delete(Long listId) {
+        todoListRepository.deleteMemberships(listId);
+        if (taskRepository.countByTodoListId(listId) > syncMaxTasks) {
+            todoListRepository.markDeleted(listId, LocalDateTime.now());
+            return false;
+        }
+        taskRepository.bulkDeleteByTodoListId(listId);
+        deleteRow(listId);
+        return true;
+    }
+
+    private void deleteRow(Long listId) {
+        todoListChangeRepository.deleteByListId(listId);
+        todoListRepository.deleteRow(listId);
+    }
+
+    @Scheduled(fixedDelayString = "${todolists.purge.interval:60000}",
+            initialDelayString = "${todolists.purge.initial-delay:60000}")
+    public void purge() {
+        List<Long> listIds = todoListRepository.findDeletedIds(PageRequest.of(0, LISTS_PER_RUN));
+        int batches = 0;
+        for (Long listId : listIds) {
+            while (batches < maxBatches) {
+                batches++;
+                Integer deleted = transactionTemplate.execute(status -> {
+                    List<Long> ids = taskRepository.findIdsByTodoListId(listId, PageRequest.of(0, batchSize));
+                    if (!ids.isEmpty()) {
+                        taskRepository.deleteAllByIdInBatch(ids);
+                        tasksPurged.increment(ids.size());
+                    }
+                    return ids.size();
+                });
+                if (deleted == null || deleted < batchSize) {
+                    transactionTemplate.executeWithoutResult(status -> deleteRow(listId));
+                    listsPurged.increment();
+                    break;
+                }
+            }
+            if (batches >= maxBatches) {
+                return;
+            }
+        }
+    }
+}
@@ -1,22 +1,32 @@
 package com.simon.code_lab.service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import com.simon.code_lab.config.PaginationProperties;
+import com.simon.code_lab.dto.CursorPage;
 import com.simon.code_lab.dto.TodoListDto;
+import com.simon.code_lab.dto.TodoListSummaryDto;
 import com.simon.code_lab.dto.mapper.TodoListMapper;
+import com.simon.code_lab.dto.projection.ListVersionRow;
+import com.simon.code_lab.dto.projection.TodoListRow;
+import com.simon.code_lab.dto.projection.TodoListSummaryRow;
 import com.simon.code_lab.exception.AccessDeniedException;
+import com.simon.code_lab.exception.PreconditionFailedException;
 import com.simon.code_lab.exception.TodoListNotFoundException;
 import com.simon.code_lab.exception.UserNotFoundException;
 import com.simon.code_lab.model.TodoList;
 import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.TodoListChangeRepository;
 import com.simon.code_lab.repository.TodoListRepository;
 import com.simon.code_lab.repository.UserRepository;
-import com.simon.code_lab.util.SecurityUtil;
+import com.simon.code_lab.util.CursorCodec;
+import com.simon.code_lab.util.TokenDigest;
 
 import lombok.RequiredArgsConstructor;
 
@@ -25,19 +35,23 @@ import lombok.RequiredArgsConstructor;
 public class TodoListService {
 
     private final TodoListRepository todoListRepository;
+    private final TodoListChangeRepository todoListChangeRepository;
     private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
+    private final ListAccessCache listAccessCache;
+    private final PaginationProperties paginationProperties;
+    private final TodoListPurger todoListPurger;
+    private final TaskToggleBuffer taskToggleBuffer;
 
     private User getCurrentUserOrThrow() {
-        String username = SecurityUtil.getAuthenticatedUsername();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        return currentUserService.getCurrentUserOrThrow();
     }
 
     private TodoList getListIfMember(Long listId, User user) {
         TodoList list = todoListRepository.findById(listId)
                 .orElseThrow(() -> new TodoListNotFoundException(listId));
 
-        if (!list.getMembers().contains(user)) {
+        if (!listAccessCache.canAccess(user.getId(), listId)) {
             throw new AccessDeniedException("User is not a member of this list");
         }
         return list;
@@ -52,21 +66,91 @@ public class TodoListService {
         list.setOwner(owner);
         list.getMembers().add(owner);
 
-        return TodoListMapper.toTodoListDto(todoListRepository.save(list));
+        TodoList saved = todoListRepository.save(list);
+        listAccessCache.grant(owner.getId(), saved.getId());
+        return TodoListMapper.toTodoListDto(saved);
     }
 
-    @Transactional(readOnly = true)
-    public List<TodoListDto> getTodoListsForCurrentUser() {
+    // Reads that flush TaskToggleBuffer write its pending toggles in the caller's transaction, so they are not
+    // read-only.
+    @Transactional
+    public CursorPage<TodoListDto> getTodoListsForCurrentUser(String cursor, Integer size) {
+        Long userId = getCurrentUserOrThrow().getId();
+        taskToggleBuffer.flushMember(userId);
+        int pageSize = paginationProperties.todoListPageSize(size);
+        List<TodoListRow> lists = todoListRepository.findRowsByMemberId(userId, CursorCodec.decode(cursor),
+                PageRequest.ofSize(pageSize + 1));
+        if (lists.isEmpty()) {
+            return new CursorPage<>(new ArrayList<>(), null);
+        }
+
+        String nextCursor = null;
+        if (lists.size() > pageSize) {
+            lists = lists.subList(0, pageSize);
+            nextCursor = CursorCodec.encode(lists.get(pageSize - 1).id());
+        }
+        // Tasks are not embedded, so the page size does not grow with the lists; they are paged by GET /tasks?listId=.
+        List<Long> listIds = lists.stream().map(TodoListRow::id).toList();
+        return new CursorPage<>(TodoListMapper.toTodoListDtos(lists,
+                todoListRepository.findMemberRowsByListIds(listIds), null), nextCursor);
+    }
+
+    // Overview of the same page as getTodoListsForCurrentUser: one query, no member or task rows.
+    @Transactional
+    public CursorPage<TodoListSummaryDto> getTodoListSummaries(String cursor, Integer size) {
+        Long userId = getCurrentUserOrThrow().getId();
+        taskToggleBuffer.flushMember(userId);
+        int pageSize = paginationProperties.todoListPageSize(size);
+        List<TodoListSummaryRow> lists = todoListRepository.findSummariesByMemberId(userId,
+                CursorCodec.decode(cursor), PageRequest.ofSize(pageSize + 1));
+
+        String nextCursor = null;
+        if (lists.size() > pageSize) {
+            lists = lists.subList(0, pageSize);
+            nextCursor = CursorCodec.encode(lists.get(pageSize - 1).id());
+        }
+        return new CursorPage<>(lists.stream().map(TodoListMapper::toTodoListSummaryDto).toList(), nextCursor);
+    }
+
+    // Tag of a page of lists: changes when a list joins or leaves the page, or any of them changes. Read before
+    // the page itself, so a write landing in between can only make the next request miss, never serve stale lists.
+    @Transactional
+    public String getTodoListsTag(String cursor, Integer size) {
+        Long userId = getCurrentUserOrThrow().getId();
+        taskToggleBuffer.flushMember(userId);
+        int pageSize = paginationProperties.todoListPageSize(size);
+        List<ListVersionRow> lists = todoListRepository.findVersionsByMemberId(userId, CursorCodec.decode(cursor),
+                PageRequest.ofSize(pageSize + 1));
+
+        String nextCursor = null;
+        if (lists.size() > pageSize) {
+            lists = lists.subList(0, pageSize);
+            nextCursor = CursorCodec.encode(lists.get(pageSize - 1).id());
+        }
+        return TokenDigest.sha256(lists.stream().map(list -> list.id() + ":" + list.tag())
+                .collect(Collectors.joining(",")) + ";" + nextCursor);
+    }
+
+    // Answers If-None-Match without loading the list, its members or its tasks; read before the list, like
+    // getTodoListsTag.
+    @Transactional
+    public String getTodoListTag(Long id) {
         User user = getCurrentUserOrThrow();
-        return todoListRepository.findByMember(user)
-                .stream()
-                .map(TodoListMapper::toTodoListDto)
-                .collect(Collectors.toList());
+        if (!listAccessCache.canAccess(user.getId(), id)) {
+            if (!todoListRepository.existsById(id)) {
+                throw new TodoListNotFoundException(id);
+            }
+            throw new AccessDeniedException("User is not a member of this list");
+        }
+        taskToggleBuffer.flushList(id);
+        return todoListRepository.findVersionById(id).map(ListVersionRow::tag)
+                .orElseThrow(() -> new TodoListNotFoundException(id));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional
     public TodoListDto getTodoListById(Long id) {
         User user = getCurrentUserOrThrow();
+        taskToggleBuffer.flushList(id);
         return TodoListMapper.toTodoListDto(getListIfMember(id, user));
     }
 
@@ -83,12 +167,14 @@ public class TodoListService {
         User newMember = userRepository.findByEmail(memberEmailToAdd)
                 .orElseThrow(() -> new UserNotFoundException(memberEmailToAdd));
 
-        if (list.getMembers().contains(newMember)) {
+        if (todoListRepository.existsByIdAndMembersId(listId, newMember.getId())) {
             throw new RuntimeException("User already a member");
         }
 
-        list.getMembers().add(newMember);
-        return TodoListMapper.toTodoListDto(todoListRepository.save(list));
+        todoListRepository.insertMembership(listId, newMember.getId());
+        todoListChangeRepository.record(List.of(listId));
+        listAccessCache.grant(newMember.getId(), listId);
+        return loadTodoListDto(listId);
     }
 
     @Transactional
@@ -104,7 +190,7 @@ public class TodoListService {
         User member = userRepository.findByEmail(memberEmailToRemove)
                 .orElseThrow(() -> new UserNotFoundException(memberEmailToRemove));
 
-        if (!list.getMembers().contains(member)) {
+        if (!todoListRepository.existsByIdAndMembersId(listId, member.getId())) {
             throw new AccessDeniedException("User is not a member of this list");
         }
 
@@ -112,25 +198,39 @@ public class TodoListService {
             throw new AccessDeniedException("Owner cannot be removed");
         }
 
-        list.getMembers().remove(member);
-        return TodoListMapper.toTodoListDto(todoListRepository.save(list));
+        todoListRepository.deleteMembership(listId, member.getId());
+        todoListChangeRepository.record(List.of(listId));
+        listAccessCache.revoke(member.getId(), listId);
+        return loadTodoListDto(listId);
     }
 
+    // Built from row projections, so the members collection is never loaded into a Set<User>.
+    private TodoListDto loadTodoListDto(Long listId) {
+        TodoListRow list = todoListRepository.findRowById(listId)
+                .orElseThrow(() -> new TodoListNotFoundException(listId));
+        List<Long> listIds = List.of(listId);
+        return TodoListMapper.toTodoListDtos(List.of(list), todoListRepository.findMemberRowsByListIds(listIds),
+                todoListRepository.findTaskRowsByListIds(listIds)).get(0);
+    }
+
+    // expectedVersion comes from If-Match; null means an unconditional write.
     @Transactional
-    public TodoListDto updateTitle(Long listId, String newTitle) {
+    public TodoListDto updateTitle(Long listId, String newTitle, Long expectedVersion) {
         User requester = getCurrentUserOrThrow();
         TodoList list = getListIfMember(listId, requester);
 
         if (!list.getOwner().equals(requester)) {
             throw new AccessDeniedException("Only the owner can update the title");
         }
+        ensureVersion(list, expectedVersion);
 
         list.setTitle(newTitle);
-        return TodoListMapper.toTodoListDto(todoListRepository.save(list));
+        return TodoListMapper.toTodoListDto(todoListRepository.saveAndFlush(list));
     }
 
+    // The bulk statements of TodoListPurger bypass the @Version check, so only If-Match guards deletion.
     @Transactional
-    public void deleteTodoList(Long listId) {
+    public void deleteTodoList(Long listId, Long expectedVersion) {
         User requester = getCurrentUserOrThrow();
         TodoList list = todoListRepository.findById(listId)
                 .orElseThrow(() -> new TodoListNotFoundException(listId));
@@ -138,7 +238,16 @@ public class TodoListService {
         if (!list.getOwner().equals(requester)) {
             throw new AccessDeniedException("Only the owner can delete the list");
         }
+        ensureVersion(list, expectedVersion);
 
-        todoListRepository.delete(list);
+        List<Long> memberIds = todoListRepository.findMemberIdsByListId(listId);
+        todoListPurger.delete(listId);
+        listAccessCache.revokeAll(memberIds, listId);
+    }
+
+    private static void ensureVersion(TodoList list, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != list.getVersion()) {
+            throw new PreconditionFailedException("Todo list", list.getId());
+        }
     }
 }
@@ -0,0 +1,48 @@
+package com.simon.code_lab.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.simon.code_lab.repository.UserRepository;
+
+@Service
+public class TokenVersionService {
+    private final UserRepository userRepository;
+
+    // Last token version read from the database per user id.
+    private final Cache<Long, Long> knownVersions;
+
+    public TokenVersionService(UserRepository userRepository,
+            @Value("${security.jwt.token-version.cache-ttl:60000}") long cacheTtl,
+            @Value("${security.jwt.token-version.cache-maximum-size:100000}") long cacheMaximumSize) {
+        this.userRepository = userRepository;
+        this.knownVersions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(cacheTtl))
+                .maximumSize(cacheMaximumSize)
+                .build();
+    }
+
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        Long knownVersion = knownVersions.getIfPresent(userId);
+        if (knownVersion != null && knownVersion == tokenVersion) {
+            return true;
+        }
+
+        Long currentVersion = userRepository.findTokenVersionById(userId).orElse(null);
+        if (currentVersion == null) {
+            knownVersions.invalidate(userId);
+            return false;
+        }
+        knownVersions.put(userId, currentVersion);
+        return currentVersion == tokenVersion;
+    }
+
+    public void revokeTokens(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        knownVersions.invalidate(userId);
+    }
+}
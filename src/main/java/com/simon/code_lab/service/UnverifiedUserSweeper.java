@@ -0,0 +1,114 @@
+package com.simon.code_lab.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.simon.code_lab.repository.RefreshTokenRepository;
+import com.simon.code_lab.repository.TodoListChangeRepository;
+import com.simon.code_lab.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Clears expired verification codes, deletes accounts that were never verified and expired refresh tokens.
+// Each batch runs in its own short transaction so the tables are never locked for the whole sweep.
+@Service
+public class UnverifiedUserSweeper {
+    private final UserRepository userRepository;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final TodoListChangeRepository todoListChangeRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final int maxBatches;
+
+    private final long unverifiedRetentionDays;
+
+    private final Counter codesCleared;
+
+    private final Counter usersPurged;
+
+    private final Counter refreshTokensPurged;
+
+    private final Timer sweepTimer;
+
+    public UnverifiedUserSweeper(UserRepository userRepository, RefreshTokenRepository refreshTokenRepository,
+            TodoListChangeRepository todoListChangeRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${users.sweeper.batch-size:500}") int batchSize,
+            @Value("${users.sweeper.max-batches:100}") int maxBatches,
+            @Value("${users.sweeper.unverified-retention-days:7}") long unverifiedRetentionDays) {
+        this.userRepository = userRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.todoListChangeRepository = todoListChangeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.unverifiedRetentionDays = unverifiedRetentionDays;
+        this.codesCleared = Counter.builder("users.sweeper.codes.cleared").register(meterRegistry);
+        this.usersPurged = Counter.builder("users.sweeper.users.purged").register(meterRegistry);
+        this.refreshTokensPurged = Counter.builder("users.sweeper.refresh-tokens.purged").register(meterRegistry);
+        this.sweepTimer = Timer.builder("users.sweeper.duration").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${users.sweeper.interval:3600000}",
+            initialDelayString = "${users.sweeper.initial-delay:60000}")
+    public void sweep() {
+        sweepTimer.record(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            clearExpiredCodes(now);
+            purgeStaleUnverifiedUsers(now.minusDays(unverifiedRetentionDays));
+            purgeExpiredRefreshTokens(now);
+        });
+    }
+
+    void clearExpiredCodes(LocalDateTime now) {
+        inBatches(page -> userRepository.findIdsWithExpiredVerificationCode(now, page),
+                ids -> userRepository.clearVerificationCodes(ids, now), codesCleared);
+    }
+
+    void purgeStaleUnverifiedUsers(LocalDateTime cutoff) {
+        inBatches(page -> userRepository.findStaleUnverifiedIds(cutoff, page), ids -> {
+            // Lists that lose a member change too, so their tags must move.
+            todoListChangeRepository.recordByMemberIds(ids);
+            userRepository.deleteMemberships(ids);
+            return userRepository.deleteUnverifiedByIds(ids);
+        }, usersPurged);
+    }
+
+    void purgeExpiredRefreshTokens(LocalDateTime now) {
+        inBatches(page -> refreshTokenRepository.findExpiredIds(now, page), refreshTokenRepository::deleteByIds,
+                refreshTokensPurged);
+    }
+
+    private void inBatches(Function<Pageable, List<Long>> nextIds, ToIntFunction<List<Long>> apply,
+            Counter counter) {
+        Pageable page = PageRequest.of(0, batchSize);
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer found = transactionTemplate.execute(status -> {
+                List<Long> ids = nextIds.apply(page);
+                if (!ids.isEmpty()) {
+                    counter.increment(apply.applyAsInt(ids));
+                }
+                return ids.size();
+            });
+            if (found == null || found < batchSize) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.simon.code_lab.util;
+
+import java.util.Arrays;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+// Prints the highest BCrypt strength whose median hash time on this machine stays under the target.
+// Usage: BCryptCalibration [targetMillis]
+public final class BCryptCalibration {
+    private static final long DEFAULT_TARGET_MILLIS = 250;
+
+    private static final int MIN_STRENGTH = 4;
+
+    private static final int MAX_STRENGTH = 31;
+
+    private static final int SAMPLES = 5;
+
+    private BCryptCalibration() {
+    }
+
+    public static void main(String[] args) {
+        long targetMillis = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_TARGET_MILLIS;
+
+        int chosen = MIN_STRENGTH;
+        for (int strength = MIN_STRENGTH; strength <= MAX_STRENGTH; strength++) {
+            long millis = medianHashMillis(strength);
+            System.out.printf("strength %2d: %d ms%n", strength, millis);
+            if (millis > targetMillis) {
+                break;
+            }
+            chosen = strength;
+        }
+
+        System.out.println("security.password.bcrypt-strength=" + chosen);
+    }
+
+    static long medianHashMillis(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration");
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            samples[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
@@ -0,0 +1,112 @@
+package com.simon.code_lab.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Incremental RFC 4180 reader: quoted fields, doubled quotes, CRLF and line breaks inside quotes.
+// Only the current record is held in memory, and it is capped at maxRecordLength characters: a longer record is
+// still read to its end, so the next one starts in the right place, but comes back truncated and flagged.
+public final class CsvReader {
+    private final BufferedReader reader;
+
+    private final int maxRecordLength;
+
+    private int pushedBack = -2;
+
+    private long line = 1;
+
+    private long recordLine;
+
+    private boolean recordTooLong;
+
+    public CsvReader(Reader reader, int maxRecordLength) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    // Null at the end of the input.
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        recordTooLong = false;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int length = 0;
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                }
+            } else if (c == -1 || c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pushedBack = next;
+                    }
+                }
+                if (!recordTooLong) {
+                    fields.add(field.toString());
+                }
+                return fields;
+            } else if (c == ',') {
+                if (!recordTooLong) {
+                    fields.add(field.toString());
+                }
+                field.setLength(0);
+                c = read();
+                continue;
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+                c = read();
+                continue;
+            }
+
+            if (++length > maxRecordLength) {
+                recordTooLong = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    // Whether the last record returned by readRecord exceeded maxRecordLength.
+    public boolean isRecordTooLong() {
+        return recordTooLong;
+    }
+
+    // Line on which the last record returned by readRecord started.
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pushedBack != -2) {
+            c = pushedBack;
+            pushedBack = -2;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,40 @@
+package com.simon.code_lab.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// RFC 4180 output counterpart of CsvReader: fields are quoted only when they need to be.
+public final class CsvWriter {
+    private final Writer writer;
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void writeRecord(String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(fields[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeField(String field) throws IOException {
+        if (field == null) {
+            return;
+        }
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            writer.write(field);
+            return;
+        }
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
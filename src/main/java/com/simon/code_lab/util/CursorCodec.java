@@ -0,0 +1,66 @@
+package com.simon.code_lab.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.simon.code_lab.exception.InvalidCursorException;
+
+// Opaque keyset cursors: the last id of a page (and its sort key, for non-id sorts), versioned and
+// base64url-encoded so clients don't build them.
+public final class CursorCodec {
+    private static final String PREFIX = "v1:";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(long lastId) {
+        return encodeRaw(PREFIX + lastId);
+    }
+
+    public static String encode(long lastId, String sortKey) {
+        return encodeRaw(PREFIX + lastId + ":" + sortKey);
+    }
+
+    // A missing cursor starts from the beginning.
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        String raw = decodeRaw(cursor);
+        int end = raw.indexOf(':', PREFIX.length());
+        try {
+            return Long.parseLong(raw.substring(PREFIX.length(), end < 0 ? raw.length() : end));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    // Null for a missing cursor; an id-only cursor has no sort key.
+    public static String decodeSortKey(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String raw = decodeRaw(cursor);
+        int end = raw.indexOf(':', PREFIX.length());
+        if (end < 0) {
+            throw new InvalidCursorException(cursor);
+        }
+        return raw.substring(end + 1);
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeRaw(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new InvalidCursorException(cursor);
+            }
+            return raw;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.simon.code_lab.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// A template parsed once into literal segments and {{slot}} names; rendering only appends to a buffer.
+public final class EmailTemplate {
+    private static final String OPEN = "{{";
+
+    private static final String CLOSE = "}}";
+
+    private final String[] literals;
+
+    private final String[] slots;
+
+    private final boolean escapeHtml;
+
+    private EmailTemplate(String[] literals, String[] slots, boolean escapeHtml) {
+        this.literals = literals;
+        this.slots = slots;
+        this.escapeHtml = escapeHtml;
+    }
+
+    public static EmailTemplate compile(String source, boolean escapeHtml, Collection<String> allowedSlots) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, position)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed slot at offset " + open);
+            }
+            String slot = source.substring(open + OPEN.length(), close).trim();
+            if (!allowedSlots.contains(slot)) {
+                throw new IllegalArgumentException("Unknown slot '" + slot + "'");
+            }
+            literals.add(source.substring(position, open));
+            slots.add(slot);
+            position = close + CLOSE.length();
+        }
+        literals.add(source.substring(position));
+        return new EmailTemplate(literals.toArray(String[]::new), slots.toArray(String[]::new), escapeHtml);
+    }
+
+    public void renderTo(Map<String, String> values, StringBuilder out) {
+        out.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            String value = values.get(slots[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing value for slot '" + slots[i] + "'");
+            }
+            if (escapeHtml) {
+                appendEscaped(value, out);
+            } else {
+                out.append(value);
+            }
+            out.append(literals[i + 1]);
+        }
+    }
+
+    private static void appendEscaped(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+-- Exécuté après la mise à jour du schéma par Hibernate (spring.jpa.defer-datasource-initialization)
+
+-- Clé de tri des tâches créées avant l'ajout de la colonne title_key
+UPDATE task SET title_key = lower(coalesce(title, '')) WHERE title_key IS NULL;
+
+-- Les index B-tree classiques ne servent pas LIKE 'préfixe%' hors collation C : filtre par préfixe de titre
+CREATE INDEX IF NOT EXISTS idx_task_list_title_prefix
+    ON task (todo_list_id, title_key varchar_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_task_list_completed_title_prefix
+    ON task (todo_list_id, completed, title_key varchar_pattern_ops);
+
+-- Recherche plein texte (GET /tasks/search) : le titre pèse plus que la description
+ALTER TABLE task ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A')
+        || setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+CREATE INDEX IF NOT EXISTS idx_task_search ON task USING gin (search_vector);
+
+-- Séquences des identifiants (anciennement IDENTITY) : jamais en dessous des identifiants existants
+SELECT setval('task_seq', greatest((SELECT last_value FROM task_seq), (SELECT coalesce(max(id), 0) + 50 FROM task)));
+SELECT setval('todo_list_seq',
+    greatest((SELECT last_value FROM todo_list_seq), (SELECT coalesce(max(id), 0) + 50 FROM todo_list)));
+
+-- Statut SENDING de l'outbox : la contrainte CHECK générée par Hibernate ne connaît que les anciennes valeurs
+ALTER TABLE email_outbox DROP CONSTRAINT IF EXISTS email_outbox_status_check;
+ALTER TABLE email_outbox ADD CONSTRAINT email_outbox_status_check
+    CHECK (status IN ('PENDING', 'SENDING', 'SENT', 'DEAD'));
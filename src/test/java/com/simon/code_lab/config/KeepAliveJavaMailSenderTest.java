@@ -0,0 +1,77 @@
+package com.simon.code_lab.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+class KeepAliveJavaMailSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("test", "test"));
+
+    private SimpleMeterRegistry meterRegistry;
+    private KeepAliveJavaMailSender mailSender;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        mailSender = new KeepAliveJavaMailSender(meterRegistry, 2, 60000);
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        mailSender.setUsername("test");
+        mailSender.setPassword("test");
+        mailSender.getJavaMailProperties().put("mail.smtp.auth", "true");
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailSender.destroy();
+    }
+
+    @Test
+    void send_shouldReuseConnection_acrossBatchesAndSingleSends() throws Exception {
+        mailSender.send(message("a@example.com"), message("b@example.com"), message("c@example.com"));
+        mailSender.send(message("d@example.com"));
+
+        assertEquals(4, greenMail.getReceivedMessages().length);
+        assertEquals(1.0, meterRegistry.counter("mail.smtp.connections.opened").count());
+        assertEquals(1.0, meterRegistry.counter("mail.smtp.connections.reused").count());
+        assertEquals(4, meterRegistry.timer("mail.smtp.send.duration").count());
+    }
+
+    @Test
+    void send_shouldReconnect_whenPooledConnectionIsIdleTooLong() throws Exception {
+        mailSender = new KeepAliveJavaMailSender(meterRegistry, 2, 0);
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        mailSender.send(message("a@example.com"));
+        Thread.sleep(5);
+        mailSender.send(message("b@example.com"));
+
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        assertEquals(2.0, meterRegistry.counter("mail.smtp.connections.opened").count());
+        assertEquals(0.0, meterRegistry.counter("mail.smtp.connections.reused").count());
+    }
+
+    private MimeMessage message(String to) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        message.setFrom("noreply@example.com");
+        message.setRecipients(MimeMessage.RecipientType.TO, to);
+        message.setSubject("Hello");
+        message.setText("Body");
+        return message;
+    }
+}
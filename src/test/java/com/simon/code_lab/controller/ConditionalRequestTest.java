@@ -0,0 +1,278 @@
+package com.simon.code_lab.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simon.code_lab.model.Task;
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.TaskRepository;
+import com.simon.code_lab.repository.TodoListRepository;
+import com.simon.code_lab.repository.UserRepository;
+import com.simon.code_lab.service.JwtService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoListRepository todoListRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private String token;
+    private long listId;
+    private long taskId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        User user = new User("editor", "editor@example.com", "password");
+        user.setEnabled(true);
+        token = jwtService.generateToken(userRepository.save(user));
+
+        listId = id(perform(post("/todolists")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Work\"}")));
+        taskId = id(perform(post("/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"listId\":" + listId + ",\"title\":\"Report\",\"description\":\"Friday\"}"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\"")));
+    }
+
+    @AfterEach
+    void cleanDatabase() {
+        taskRepository.deleteAll();
+        todoListRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void updateTask_shouldRejectAStaleIfMatch() throws Exception {
+        perform(updateTask("First").header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        perform(updateTask("Second").header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        perform(updateTask("Second").header(HttpHeaders.IF_MATCH, "W/\"1\""))
+                .andExpect(status().isPreconditionFailed());
+
+        perform(updateTask("Unconditional"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+
+    @Test
+    void patchTask_shouldOnlyTouchTheGivenFieldsAndHonourIfMatch() throws Exception {
+        perform(patch("/tasks/" + taskId)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Quarterly report\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.title").value("Quarterly report"))
+                .andExpect(jsonPath("$.description").doesNotExist());
+
+        perform(patch("/tasks/" + taskId)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"completed\":true}"))
+                .andExpect(status().isPreconditionFailed());
+        perform(patch("/tasks/" + taskId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        Task task = taskRepository.findById(taskId).orElseThrow();
+        assertEquals("Quarterly report", task.getTitle());
+        assertEquals("quarterly report", task.getTitleKey());
+        assertEquals("Friday", task.getDescription());
+        assertFalse(task.isCompleted());
+        assertEquals(1, task.getVersion());
+    }
+
+    @Test
+    void patchTask_shouldRejectNonMembersAndUnknownTasks() throws Exception {
+        User other = new User("outsider", "outsider@example.com", "password");
+        other.setEnabled(true);
+        String outsiderToken = jwtService.generateToken(userRepository.save(other));
+
+        mockMvc.perform(patch("/tasks/" + taskId)
+                .header("Authorization", "Bearer " + outsiderToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"completed\":true}"))
+                .andExpect(status().isForbidden());
+        perform(patch("/tasks/" + (taskId + 1000))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"completed\":true}"))
+                .andExpect(status().isNotFound());
+        assertFalse(taskRepository.findById(taskId).orElseThrow().isCompleted());
+    }
+
+    @Test
+    void deleteTask_shouldRequireTheCurrentVersion() throws Exception {
+        perform(updateTask("First"));
+
+        perform(delete("/tasks/" + taskId).header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        perform(delete("/tasks/" + taskId).header(HttpHeaders.IF_MATCH, "\"1\""))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void todoList_shouldExposeItsVersionAndRejectStaleWrites() throws Exception {
+        // The task created in setUp moved the change stamp of the list, not its version.
+        String eTag = perform(get("/todolists/" + listId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(eTag.startsWith("\"0."));
+
+        perform(put("/todolists/" + listId + "/title")
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Home\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        perform(put("/todolists/" + listId + "/title")
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Garden\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error").value("Todo list " + listId + " was modified by another request"));
+        perform(delete("/todolists/" + listId).header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        perform(delete("/todolists/" + listId).header(HttpHeaders.IF_MATCH, "\"1\""))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void todoList_shouldNotConflictWithTaskWrites() throws Exception {
+        String eTag = perform(get("/todolists/" + listId)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(updateTask("Changed")).andExpect(status().isOk());
+        perform(post("/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"listId\":" + listId + ",\"title\":\"Slides\"}"))
+                .andExpect(status().is2xxSuccessful());
+
+        perform(put("/todolists/" + listId + "/title")
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Home\"}"))
+                .andExpect(status().isOk());
+        perform(put("/todolists/" + listId + "/title")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Garden\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+
+    @Test
+    void getTodoListById_shouldAnswerNotModifiedUntilATaskChanges() throws Exception {
+        String eTag = perform(get("/todolists/" + listId))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(get("/todolists/" + listId).header(HttpHeaders.IF_NONE_MATCH, "W/" + eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        perform(updateTask("Changed"));
+
+        perform(get("/todolists/" + listId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[0].title").value("Changed"));
+    }
+
+    @Test
+    void getTodoLists_shouldAnswerNotModifiedUntilAListJoinsOrChanges() throws Exception {
+        String eTag = perform(get("/todolists")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(get("/todolists").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        perform(post("/todolists")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Home\"}"));
+        String withNewList = perform(get("/todolists").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(delete("/tasks/" + taskId));
+        perform(get("/todolists").header(HttpHeaders.IF_NONE_MATCH, withNewList))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getTodoListSummaries_shouldAnswerNotModifiedUntilAMemberJoins() throws Exception {
+        User member = new User("member", "member@example.com", "password");
+        member.setEnabled(true);
+        userRepository.save(member);
+        String eTag = perform(get("/todolists/summary")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(get("/todolists/summary").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        perform(post("/todolists/" + listId + "/members")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"memberEmail\":\"member@example.com\"}"));
+        perform(get("/todolists/summary").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].memberCount").value(2))
+                .andExpect(jsonPath("$[0].taskCount").value(1));
+    }
+
+    private MockHttpServletRequestBuilder updateTask(String title) {
+        return put("/tasks/" + taskId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"" + title + "\",\"description\":\"Friday\",\"completed\":false}");
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request.header("Authorization", "Bearer " + token));
+    }
+
+    private long id(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString()).get("id").asLong();
+    }
+}
@@ -0,0 +1,100 @@
+package com.simon.code_lab.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.TaskRepository;
+import com.simon.code_lab.repository.TodoListRepository;
+import com.simon.code_lab.repository.UserRepository;
+import com.simon.code_lab.service.JwtService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Shared setup of the endpoint benchmarks: one signed-in user owning one empty list, removed after each run.
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+abstract class ControllerBenchmark {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected TodoListRepository todoListRepository;
+
+    @Autowired
+    protected TaskRepository taskRepository;
+
+    protected Statistics statistics;
+    protected long listId;
+    private String token;
+
+    @BeforeEach
+    void createList() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User user = new User("bench", "bench@example.com", "password");
+        user.setEnabled(true);
+        token = jwtService.generateToken(userRepository.save(user));
+        listId = json(perform(post("/todolists")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Bench\"}"))).get("id").asLong();
+    }
+
+    @AfterEach
+    void cleanDatabase() {
+        taskRepository.deleteAllInBatch();
+        todoListRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    protected MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request.header("Authorization", "Bearer " + token))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn();
+    }
+
+    protected JsonNode json(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    // Runs the workload once with cleared Hibernate statistics and returns its duration in nanoseconds.
+    protected long time(Workload workload) throws Exception {
+        statistics.clear();
+        long start = System.nanoTime();
+        workload.run();
+        return System.nanoTime() - start;
+    }
+
+    protected interface Workload {
+        void run() throws Exception;
+    }
+}
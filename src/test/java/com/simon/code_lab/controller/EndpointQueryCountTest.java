@@ -0,0 +1,455 @@
+package com.simon.code_lab.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simon.code_lab.model.Task;
+import com.simon.code_lab.model.TodoList;
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.TaskRepository;
+import com.simon.code_lab.repository.TodoListRepository;
+import com.simon.code_lab.repository.UserRepository;
+import com.simon.code_lab.service.JwtService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the JDBC statements issued per endpoint. The JWT filter loads the
+ * authenticated user once; the services must not look it up again, and
+ * membership checks are answered by the warm ListAccessCache.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoListRepository todoListRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String token;
+    private long listId;
+    private long taskId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User user = new User("counter", "counter@example.com", "password");
+        user.setEnabled(true);
+        token = jwtService.generateToken(userRepository.save(user));
+
+        listId = json(perform(post("/todolists")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Work\"}"))).get("id").asLong();
+        taskId = json(perform(post("/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"listId\":" + listId + ",\"title\":\"Report\",\"description\":\"Friday\"}")))
+                .get("id").asLong();
+    }
+
+    @AfterEach
+    void cleanDatabase() {
+        taskRepository.deleteAll();
+        todoListRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getTasks() throws Exception {
+        assertStatements(2, get("/tasks").param("listId", String.valueOf(listId)));
+    }
+
+    @Test
+    void getTasks_shouldWalkPagesWithTheNextCursorHeader() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            perform(post("/tasks")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"listId\":" + listId + ",\"title\":\"Task " + i + "\",\"description\":\"\"}"));
+        }
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/tasks")
+                    .param("listId", String.valueOf(listId))
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            statistics.clear();
+            MvcResult result = perform(request).andReturn();
+            assertEquals(2, statistics.getPrepareStatementCount());
+            json(result).forEach(task -> ids.add(task.get("id").asLong()));
+            cursor = result.getResponse().getHeader(PageResponses.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        assertEquals(5, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+    }
+
+    @Test
+    void getTasks_shouldFilterAndSortByTitleInTheDatabase() throws Exception {
+        for (String title : new String[] { "review", "Reply", "release", "Other", "reading" }) {
+            perform(post("/tasks")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"listId\":" + listId + ",\"title\":\"" + title + "\",\"description\":\"\"}"));
+        }
+
+        List<String> titles = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/tasks")
+                    .param("listId", String.valueOf(listId))
+                    .param("completed", "false")
+                    .param("titlePrefix", "RE")
+                    .param("sort", "title")
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            statistics.clear();
+            MvcResult result = perform(request).andReturn();
+            assertEquals(2, statistics.getPrepareStatementCount());
+            json(result).forEach(task -> titles.add(task.get("title").asText()));
+            cursor = result.getResponse().getHeader(PageResponses.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        assertEquals(List.of("reading", "release", "Reply", "Report", "review"), titles);
+    }
+
+    @Test
+    void searchTasks_shouldRankTitleMatchesFirstAcrossTheUsersLists() throws Exception {
+        long otherListId = json(perform(post("/todolists")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Home\"}"))).get("id").asLong();
+        long describedId = json(perform(post("/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"listId\":" + otherListId + ",\"title\":\"Call\",\"description\":\"about the report\"}")))
+                .get("id").asLong();
+        perform(post("/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"listId\":" + otherListId + ",\"title\":\"Groceries\",\"description\":\"\"}"));
+
+        User stranger = new User("stranger", "stranger@example.com", "password");
+        stranger.setEnabled(true);
+        String strangerToken = jwtService.generateToken(userRepository.save(stranger));
+        mockMvc.perform(post("/todolists")
+                .header("Authorization", "Bearer " + strangerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Private\"}"))
+                .andExpect(status().is2xxSuccessful());
+
+        JsonNode results = json(perform(get("/tasks/search").param("q", "report")));
+
+        assertEquals(2, results.size());
+        assertEquals(taskId, results.get(0).get("id").asLong());
+        assertEquals(listId, results.get(0).get("listId").asLong());
+        assertEquals(describedId, results.get(1).get("id").asLong());
+        assertEquals(otherListId, results.get(1).get("listId").asLong());
+    }
+
+    @Test
+    void createTask() throws Exception {
+        assertStatements(3, post("/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"listId\":" + listId + ",\"title\":\"Slides\",\"description\":\"Monday\"}"));
+    }
+
+    @Test
+    void batchEndpoints_shouldSendOneStatementPerJdbcBatch() throws Exception {
+        StringBuilder creates = new StringBuilder("[");
+        for (int i = 0; i < 40; i++) {
+            creates.append(i == 0 ? "" : ",")
+                    .append("{\"listId\":").append(listId).append(",\"title\":\"Task ").append(i)
+                    .append("\",\"description\":\"\"}");
+        }
+        statistics.clear();
+        JsonNode created = json(perform(post("/tasks/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(creates.append("]").toString())));
+        assertEquals(40, created.size());
+        // user, sequence, insert batch, list version bump
+        assertEquals(4, statistics.getPrepareStatementCount());
+
+        StringBuilder updates = new StringBuilder("[");
+        List<Long> ids = new ArrayList<>();
+        created.forEach(task -> {
+            ids.add(task.get("id").asLong());
+            updates.append(updates.length() == 1 ? "" : ",")
+                    .append("{\"id\":").append(task.get("id").asLong())
+                    .append(",\"title\":\"Done\",\"description\":\"\",\"completed\":true}");
+        });
+        statistics.clear();
+        perform(put("/tasks/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(updates.append("]").toString()));
+        assertEquals(4, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        perform(delete("/tasks/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("ids", ids))));
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(1, taskRepository.count());
+    }
+
+    @Test
+    void importTasks_shouldStreamTheReportAndWriteOneBatchPerChunk() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1200; i++) {
+            body.append(i == 600 ? "{\"title\":\"\"}" : "{\"title\":\"Task " + i + "\"}").append('\n');
+        }
+
+        statistics.clear();
+        String report = perform(post("/todolists/" + listId + "/import")
+                .contentType("application/x-ndjson")
+                .content(body.toString()))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] events = report.split("\n");
+        assertEquals("{\"type\":\"error\",\"line\":601,\"message\":\"title is required\"}", events[1]);
+        assertEquals("{\"type\":\"done\",\"processed\":1200,\"imported\":1199,\"failed\":1}",
+                events[events.length - 1]);
+        assertEquals(1200, taskRepository.count());
+        assertEquals(32, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void exportTasks_shouldStreamEveryFormatFromASingleQuery() throws Exception {
+        perform(post("/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"listId\":" + listId + ",\"title\":\"Say \\\"hi\\\", then leave\",\"description\":null}"));
+
+        statistics.clear();
+        MvcResult json = perform(get("/todolists/" + listId + "/export")).andReturn();
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals("attachment; filename=\"todolist-" + listId + ".json\"",
+                json.getResponse().getHeader("Content-Disposition"));
+        JsonNode tasks = json(json);
+        assertEquals(2, tasks.size());
+        assertEquals("Report", tasks.get(0).get("title").asText());
+        assertEquals("Say \"hi\", then leave", tasks.get(1).get("title").asText());
+
+        String ndjson = perform(get("/todolists/" + listId + "/export").param("format", "ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(2, ndjson.split("\n").length);
+        assertEquals(taskId, objectMapper.readTree(ndjson.split("\n")[0]).get("id").asLong());
+
+        String csv = perform(get("/todolists/" + listId + "/export").param("format", "csv"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = csv.split("\r\n");
+        assertEquals("id,title,description,completed", lines[0]);
+        assertEquals(taskId + ",Report,Friday,false", lines[1]);
+        assertTrue(lines[2].endsWith(",\"Say \"\"hi\"\", then leave\",,false"));
+    }
+
+    @Test
+    void updateTask() throws Exception {
+        assertStatements(4, put("/tasks/" + taskId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Report\",\"description\":\"Friday\",\"completed\":true}"));
+    }
+
+    @Test
+    void patchTask_shouldNotLoadTheTaskOrItsList() throws Exception {
+        statistics.clear();
+        JsonNode patched = json(perform(patch("/tasks/" + taskId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"completed\":true}")));
+
+        assertEquals(0, statistics.getEntityStatistics(Task.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(TodoList.class.getName()).getLoadCount());
+        // user, conditional UPDATE of the task, list version bump
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals("{\"id\":" + taskId + ",\"completed\":true}", patched.toString());
+        assertTrue(taskRepository.findById(taskId).orElseThrow().isCompleted());
+    }
+
+    @Test
+    void deleteTask() throws Exception {
+        assertStatements(4, delete("/tasks/" + taskId));
+    }
+
+    @Test
+    void getTodoListById() throws Exception {
+        assertStatements(5, get("/todolists/" + listId));
+    }
+
+    @Test
+    void getTodoListById_shouldAnswerNotModifiedFromTheVersionAlone() throws Exception {
+        String eTag = perform(get("/todolists/" + listId)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotModified(2, get("/todolists/" + listId).header(HttpHeaders.IF_NONE_MATCH, eTag));
+    }
+
+    @Test
+    void getTodoLists_shouldAnswerNotModifiedFromTheVersionsAlone() throws Exception {
+        String eTag = perform(get("/todolists")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotModified(2, get("/todolists").header(HttpHeaders.IF_NONE_MATCH, eTag));
+    }
+
+    @Test
+    void updateTodoListTitle() throws Exception {
+        assertStatements(5, put("/todolists/" + listId + "/title")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Home\"}"));
+    }
+
+    @Test
+    void addAndRemoveMember_shouldNotLoadTheMembersCollection() throws Exception {
+        User other = new User("member", "member@example.com", "password");
+        other.setEnabled(true);
+        userRepository.save(other);
+
+        statistics.clear();
+        perform(post("/todolists/" + listId + "/members")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"memberEmail\":\"member@example.com\"}"))
+                .andExpect(jsonPath("$.members.length()").value(2));
+        perform(delete("/todolists/" + listId + "/members/member@example.com"))
+                .andExpect(jsonPath("$.members.length()").value(1));
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void deleteTodoList_shouldNotDependOnTheNumberOfTasks() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            perform(post("/tasks")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"listId\":" + listId + ",\"title\":\"Task " + i + "\",\"description\":\"\"}"));
+        }
+
+        assertStatements(8, delete("/todolists/" + listId));
+        assertEquals(0, taskRepository.count());
+        assertTrue(todoListRepository.findById(listId).isEmpty());
+    }
+
+    @Test
+    void getTodoLists_shouldNotDependOnTheNumberOfLists() throws Exception {
+        assertStatements(4, get("/todolists"));
+
+        User other = new User("member", "member@example.com", "password");
+        other.setEnabled(true);
+        userRepository.save(other);
+        for (int i = 0; i < 20; i++) {
+            long id = json(perform(post("/todolists")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"title\":\"List " + i + "\"}"))).get("id").asLong();
+            perform(post("/todolists/" + id + "/members")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"memberEmail\":\"member@example.com\"}"));
+            perform(post("/tasks")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"listId\":" + id + ",\"title\":\"Task " + i + "\",\"description\":\"\"}"));
+        }
+
+        assertStatements(4, get("/todolists"));
+        assertFalse(json(perform(get("/todolists"))).get(0).has("tasks"));
+    }
+
+    @Test
+    void getTodoListSummaries_shouldCountTasksWithoutLoadingThem() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            perform(post("/tasks")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"listId\":" + listId + ",\"title\":\"Task " + i + "\",\"description\":\"\"}"));
+        }
+        perform(patch("/tasks/" + taskId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"completed\":true}"));
+        perform(post("/todolists")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Empty\"}"));
+
+        statistics.clear();
+        JsonNode summaries = json(perform(get("/todolists/summary")));
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics(Task.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(TodoList.class.getName()).getLoadCount());
+
+        assertEquals(2, summaries.size());
+        assertEquals("Work", summaries.get(0).get("title").asText());
+        assertEquals("counter", summaries.get(0).get("owner").get("username").asText());
+        assertEquals(1, summaries.get(0).get("memberCount").asLong());
+        assertEquals(21, summaries.get(0).get("taskCount").asLong());
+        assertEquals(1, summaries.get(0).get("completedTaskCount").asLong());
+        assertEquals(0, summaries.get(1).get("taskCount").asLong());
+        assertFalse(summaries.get(0).has("tasks"));
+    }
+
+    private void assertStatements(long expected, MockHttpServletRequestBuilder request) throws Exception {
+        statistics.clear();
+        perform(request);
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+
+    private void assertNotModified(long expected, MockHttpServletRequestBuilder request) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request.header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotModified());
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request.header("Authorization", "Bearer " + token))
+                .andExpect(status().is2xxSuccessful());
+    }
+
+    private JsonNode json(ResultActions result) throws Exception {
+        return json(result.andReturn());
+    }
+
+    private JsonNode json(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+}
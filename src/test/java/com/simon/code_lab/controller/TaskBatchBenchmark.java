@@ -0,0 +1,82 @@
+package com.simon.code_lab.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+/**
+ * Compares the /tasks/batch endpoints with one request per task, reporting
+ * JDBC statements and throughput. Not run by the default build:
+ * {@code mvn test -Dtest=TaskBatchBenchmark}.
+ */
+class TaskBatchBenchmark extends ControllerBenchmark {
+
+    private static final int TASKS = 2_000;
+    private static final int BATCH_SIZE = 500;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void createAndUpdateTasks() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean report = round == ROUNDS - 1;
+            ids.clear();
+
+            measure("create, one request per task", report, () -> {
+                for (int i = 0; i < TASKS; i++) {
+                    perform(post("/tasks")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"listId\":" + listId + ",\"title\":\"Task " + i + "\",\"description\":\"\"}"));
+                }
+            });
+            measure("create, /tasks/batch", report, () -> {
+                for (int from = 0; from < TASKS; from += BATCH_SIZE) {
+                    StringBuilder body = new StringBuilder("[");
+                    for (int i = from; i < from + BATCH_SIZE; i++) {
+                        body.append(i == from ? "" : ",").append("{\"listId\":").append(listId)
+                                .append(",\"title\":\"Task ").append(i).append("\",\"description\":\"\"}");
+                    }
+                    json(perform(post("/tasks/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body.append("]").toString())))
+                            .forEach(task -> ids.add(task.get("id").asLong()));
+                }
+            });
+
+            measure("update, one request per task", report, () -> {
+                for (Long id : ids) {
+                    perform(put("/tasks/" + id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\":\"Done\",\"description\":\"\",\"completed\":true}"));
+                }
+            });
+            measure("update, /tasks/batch", report, () -> {
+                for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                    StringBuilder body = new StringBuilder("[");
+                    for (int i = from; i < from + BATCH_SIZE; i++) {
+                        body.append(i == from ? "" : ",").append("{\"id\":").append(ids.get(i))
+                                .append(",\"title\":\"Again\",\"description\":\"\",\"completed\":false}");
+                    }
+                    perform(put("/tasks/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body.append("]").toString()));
+                }
+            });
+
+            taskRepository.deleteAllInBatch();
+        }
+    }
+
+    private void measure(String name, boolean report, Workload workload) throws Exception {
+        long elapsed = time(workload);
+        if (report) {
+            System.out.printf("%-32s %8d statements %10.0f tasks/s%n", name,
+                    statistics.getPrepareStatementCount(), TASKS / (elapsed / 1e9));
+        }
+    }
+}
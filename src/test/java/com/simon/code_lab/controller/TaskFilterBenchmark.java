@@ -0,0 +1,99 @@
+package com.simon.code_lab.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Compares GET /tasks filtered and sorted by the database with the former
+ * full fetch filtered on the client, over a generated list. Not run by the
+ * default build: {@code mvn test -Dtest=TaskFilterBenchmark}.
+ */
+class TaskFilterBenchmark extends ControllerBenchmark {
+
+    private static final int TASKS = 50_000;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+    private static final String[] WORDS = { "review", "report", "call", "buy", "fix", "plan", "write", "read" };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createTasks() {
+        List<Object[]> rows = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            String title = WORDS[i % WORDS.length] + " " + i;
+            rows.add(new Object[] { listId, title, title.toLowerCase(Locale.ROOT), "generated", i % 3 == 0 });
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO task (id, todo_list_id, title, title_key, description, completed) "
+                        + "VALUES (NEXT VALUE FOR task_seq, ?, ?, ?, ?, ?)",
+                rows);
+    }
+
+    @Test
+    void openTasksStartingWithReview() throws Exception {
+        measure("database filter (first page of 50)", () -> {
+            MvcResult result = perform(get("/tasks")
+                    .param("listId", String.valueOf(listId))
+                    .param("completed", "false")
+                    .param("titlePrefix", "review")
+                    .param("sort", "title")
+                    .param("size", "50"));
+            return (long) result.getResponse().getContentAsByteArray().length;
+        });
+        measure("full fetch + client filter", () -> {
+            long bytes = 0;
+            List<JsonNode> matching = new ArrayList<>();
+            String cursor = null;
+            do {
+                MockHttpServletRequestBuilder request = get("/tasks")
+                        .param("listId", String.valueOf(listId))
+                        .param("size", "500");
+                if (cursor != null) {
+                    request.param("cursor", cursor);
+                }
+                MvcResult result = perform(request);
+                bytes += result.getResponse().getContentAsByteArray().length;
+                json(result).forEach(task -> {
+                    if (!task.get("completed").asBoolean()
+                            && task.get("title").asText().toLowerCase(Locale.ROOT).startsWith("review")) {
+                        matching.add(task);
+                    }
+                });
+                cursor = result.getResponse().getHeader(PageResponses.NEXT_CURSOR_HEADER);
+            } while (cursor != null);
+            matching.sort(Comparator.comparing(task -> task.get("title").asText().toLowerCase(Locale.ROOT)));
+            return bytes;
+        });
+    }
+
+    private static void measure(String name, Callable<Long> request) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            request.call();
+        }
+
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes = request.call();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%-40s %10.2f ms/op %10d B transferred%n", name, elapsed / 1e6 / ITERATIONS, bytes);
+    }
+}
@@ -0,0 +1,79 @@
+package com.simon.code_lab.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import com.simon.code_lab.model.User;
+
+/**
+ * Compares ticking a checkbox through PUT /tasks/{id} and PATCH /tasks/{id},
+ * reporting JDBC statements, entity loads and throughput. Not run by the
+ * default build: {@code mvn test -Dtest=TaskPatchBenchmark}.
+ */
+class TaskPatchBenchmark extends ControllerBenchmark {
+
+    private static final int TASKS = 500;
+    private static final int MEMBERS = 20;
+    private static final int ROUNDS = 5;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void createTasks() throws Exception {
+        // A shared list: the PUT path pays for its members too.
+        for (int i = 0; i < MEMBERS; i++) {
+            User member = new User("member" + i, "member" + i + "@example.com", "password");
+            member.setEnabled(true);
+            userRepository.save(member);
+            perform(post("/todolists/" + listId + "/members")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"memberEmail\":\"member" + i + "@example.com\"}"));
+        }
+        for (int i = 0; i < TASKS; i++) {
+            ids.add(json(perform(post("/tasks")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"listId\":" + listId + ",\"title\":\"Task " + i + "\",\"description\":\"Notes\"}")))
+                    .get("id").asLong());
+        }
+    }
+
+    @Test
+    void toggleCompletion() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean report = round == ROUNDS - 1;
+
+            // PUT ticks every task and PATCH unticks it, so both always write.
+            measure("toggle, PUT /tasks/{id}", report, () -> {
+                for (Long id : ids) {
+                    perform(put("/tasks/" + id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\":\"Task\",\"description\":\"Notes\",\"completed\":true}"));
+                }
+            });
+            measure("toggle, PATCH /tasks/{id}", report, () -> {
+                for (Long id : ids) {
+                    perform(patch("/tasks/" + id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"completed\":false}"));
+                }
+            });
+        }
+    }
+
+    private void measure(String name, boolean report, Workload workload) throws Exception {
+        long elapsed = time(workload);
+        if (report) {
+            System.out.printf("%-28s %8d statements %8d entity loads %10.0f toggles/s%n", name,
+                    statistics.getPrepareStatementCount(), statistics.getEntityLoadCount(),
+                    TASKS / (elapsed / 1e9));
+        }
+    }
+}
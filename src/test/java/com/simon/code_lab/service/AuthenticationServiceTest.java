@@ -0,0 +1,147 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.simon.code_lab.dto.LoginUserDto;
+import com.simon.code_lab.exception.UserNotEnabledException;
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EmailOutboxService emailOutboxService;
+
+    @Mock
+    private LoginExecutor loginExecutor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private AuthenticationService authenticationService;
+    private LoginUserDto loginUserDto;
+
+    @BeforeEach
+    void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(5);
+        authenticationService = new AuthenticationService(userRepository, passwordEncoder,
+                emailOutboxService, loginExecutor, transactionManager);
+
+        loginUserDto = new LoginUserDto();
+        loginUserDto.setEmail("test@example.com");
+        loginUserDto.setPassword("secret");
+    }
+
+    @Test
+    void authenticate_shouldRehashOnThePool_whenStoredHashIsWeaker() {
+        User user = enabledUser(new BCryptPasswordEncoder(4).encode("secret"));
+        String weakHash = user.getPassword();
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(loginExecutor.call(eq("login"), any())).thenAnswer(runOnCaller());
+        when(loginExecutor.execute(eq("rehash"), any())).thenAnswer(runInline());
+
+        authenticationService.authenticate(loginUserDto);
+
+        verify(userRepository).updatePasswordHash(eq(1L), eq(weakHash),
+                argThat(hash -> hash.startsWith("$2a$05$")
+                        && passwordEncoder.matches("secret", hash)));
+    }
+
+    @Test
+    void authenticate_shouldSucceed_whenTheRehashFails() {
+        User user = enabledUser(new BCryptPasswordEncoder(4).encode("secret"));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(loginExecutor.call(eq("login"), any())).thenAnswer(runOnCaller());
+        when(loginExecutor.execute(eq("rehash"), any())).thenAnswer(runInline());
+        when(userRepository.updatePasswordHash(any(), anyString(), anyString()))
+                .thenThrow(new IllegalStateException("database down"));
+
+        assertSame(user, authenticationService.authenticate(loginUserDto));
+    }
+
+    @Test
+    void authenticate_shouldSucceed_whenTheRehashIsRejected() {
+        User user = enabledUser(new BCryptPasswordEncoder(4).encode("secret"));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(loginExecutor.call(eq("login"), any())).thenAnswer(runOnCaller());
+        when(loginExecutor.execute(eq("rehash"), any())).thenReturn(false);
+
+        assertSame(user, authenticationService.authenticate(loginUserDto));
+        verify(userRepository, never()).updatePasswordHash(any(), anyString(), anyString());
+    }
+
+    @Test
+    void authenticate_shouldNotRehash_whenStoredHashUsesConfiguredCost() {
+        User user = enabledUser(passwordEncoder.encode("secret"));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(loginExecutor.call(eq("login"), any())).thenAnswer(runOnCaller());
+
+        authenticationService.authenticate(loginUserDto);
+
+        verify(loginExecutor, never()).execute(eq("rehash"), any());
+        verify(userRepository, never()).updatePasswordHash(any(), anyString(), anyString());
+    }
+
+    @Test
+    void authenticate_shouldThrow_whenPasswordIsWrong() {
+        User user = enabledUser(passwordEncoder.encode("other"));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(loginExecutor.call(eq("login"), any())).thenAnswer(runOnCaller());
+
+        assertThrows(BadCredentialsException.class, () -> authenticationService.authenticate(loginUserDto));
+    }
+
+    @Test
+    void authenticate_shouldThrow_whenUserIsNotEnabled() {
+        User user = enabledUser(passwordEncoder.encode("secret"));
+        user.setEnabled(false);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        assertThrows(UserNotEnabledException.class, () -> authenticationService.authenticate(loginUserDto));
+        verify(loginExecutor, never()).call(anyString(), any());
+    }
+
+    private static Answer<Object> runOnCaller() {
+        return invocation -> invocation.<Supplier<?>>getArgument(1).get();
+    }
+
+    private static Answer<Boolean> runInline() {
+        return invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        };
+    }
+
+    private User enabledUser(String passwordHash) {
+        User user = new User("testuser", "test@example.com", passwordHash);
+        user.setId(1L);
+        user.setEnabled(true);
+        return user;
+    }
+}
@@ -0,0 +1,82 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+class CurrentUserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private CurrentUserService currentUserService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("testuser", "test@example.com", "password");
+        user.setId(1L);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getCurrentUserOrThrow_shouldReuseAuthenticatedPrincipal_withoutQuerying() {
+        User reference = new User();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        when(entityManager.getReference(User.class, 1L)).thenReturn(reference);
+
+        assertSame(reference, currentUserService.getCurrentUserOrThrow());
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void getCurrentUserOrThrow_shouldLoadByUsername_whenPrincipalIsNotAUser() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("testuser", "password", List.of(() -> "ROLE_USER")));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        assertSame(user, currentUserService.getCurrentUserOrThrow());
+    }
+
+    @Test
+    void getCurrentUserOrThrow_shouldThrow_whenUserDoesNotExist() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("unknown", "password", List.of(() -> "ROLE_USER")));
+        when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> currentUserService.getCurrentUserOrThrow());
+    }
+}
@@ -0,0 +1,144 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.simon.code_lab.dto.RegisterUserDto;
+import com.simon.code_lab.model.OutboxEmail;
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.OutboxEmailRepository;
+import com.simon.code_lab.repository.UserRepository;
+
+import jakarta.mail.internet.MimeMessage;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("test", "test"));
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        outboxEmailRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void signup_shouldQueueVerificationEmail_andDispatcherShouldDeliverIt() throws Exception {
+        RegisterUserDto registerUserDto = new RegisterUserDto();
+        registerUserDto.setUsername("outbox");
+        registerUserDto.setEmail("outbox@example.com");
+        registerUserDto.setPassword("secret");
+
+        User user = authenticationService.signup(registerUserDto);
+
+        assertEquals(0, greenMail.getReceivedMessages().length);
+        OutboxEmail queued = outboxEmailRepository.findAll().get(0);
+        assertEquals(OutboxEmail.Status.PENDING, queued.getStatus());
+
+        emailOutboxDispatcher.dispatch();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("outbox@example.com", received[0].getAllRecipients()[0].toString());
+        assertTrue(GreenMailUtil.getBody(received[0]).contains(user.getVerificationCode()));
+
+        OutboxEmail sent = outboxEmailRepository.findById(queued.getId()).orElseThrow();
+        assertEquals(OutboxEmail.Status.SENT, sent.getStatus());
+    }
+
+    @Test
+    void dispatch_shouldReclaimRows_whoseLeaseRanOut() {
+        OutboxEmail stuck = emailOutboxService.enqueue("stuck@example.com", "Subject", "<p>Body</p>", "Body");
+        stuck.setStatus(OutboxEmail.Status.SENDING);
+        stuck.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxEmailRepository.save(stuck);
+        OutboxEmail leased = emailOutboxService.enqueue("leased@example.com", "Subject", "<p>Body</p>", "Body");
+        leased.setStatus(OutboxEmail.Status.SENDING);
+        leased.setNextAttemptAt(LocalDateTime.now().plusMinutes(5));
+        outboxEmailRepository.save(leased);
+
+        emailOutboxDispatcher.dispatch();
+
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(OutboxEmail.Status.SENT, outboxEmailRepository.findById(stuck.getId()).orElseThrow().getStatus());
+        assertEquals(OutboxEmail.Status.SENDING,
+                outboxEmailRepository.findById(leased.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void purgeSent_shouldDeleteOnlySentRowsPastTheRetention() {
+        OutboxEmail old = emailOutboxService.enqueue("old@example.com", "Subject", "<p>Body</p>", "Body");
+        old.setStatus(OutboxEmail.Status.SENT);
+        old.setSentAt(LocalDateTime.now().minusDays(30));
+        outboxEmailRepository.save(old);
+        OutboxEmail recent = emailOutboxService.enqueue("recent@example.com", "Subject", "<p>Body</p>", "Body");
+        recent.setStatus(OutboxEmail.Status.SENT);
+        recent.setSentAt(LocalDateTime.now());
+        outboxEmailRepository.save(recent);
+        OutboxEmail pending = emailOutboxService.enqueue("pending@example.com", "Subject", "<p>Body</p>", "Body");
+
+        emailOutboxDispatcher.purgeSent();
+
+        assertTrue(outboxEmailRepository.findById(old.getId()).isEmpty());
+        assertTrue(outboxEmailRepository.findById(recent.getId()).isPresent());
+        assertTrue(outboxEmailRepository.findById(pending.getId()).isPresent());
+    }
+
+    @Test
+    void dispatch_shouldScheduleRetry_whenSmtpServerIsDown() {
+        OutboxEmail queued = emailOutboxService.enqueue("retry@example.com", "Subject", "<p>Body</p>", "Body");
+        greenMail.stop();
+
+        emailOutboxDispatcher.dispatch();
+
+        OutboxEmail failed = outboxEmailRepository.findById(queued.getId()).orElseThrow();
+        assertEquals(OutboxEmail.Status.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertTrue(failed.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void dispatch_shouldDeadLetter_afterMaxAttempts() {
+        OutboxEmail queued = emailOutboxService.enqueue("dead@example.com", "Subject", "<p>Body</p>", "Body");
+        queued.setAttempts(7);
+        outboxEmailRepository.save(queued);
+        greenMail.stop();
+
+        emailOutboxDispatcher.dispatch();
+
+        OutboxEmail dead = outboxEmailRepository.findById(queued.getId()).orElseThrow();
+        assertEquals(OutboxEmail.Status.DEAD, dead.getStatus());
+        assertEquals(8, dead.getAttempts());
+    }
+}
@@ -0,0 +1,67 @@
+package com.simon.code_lab.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.simon.code_lab.model.EmailType;
+
+/**
+ * Compares template rendering with the former string concatenation. Not run
+ * by the default build: {@code mvn test -Dtest=EmailTemplateBenchmark}.
+ */
+class EmailTemplateBenchmark {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private final EmailTemplateService emailTemplateService = new EmailTemplateService();
+
+    @Test
+    void verificationEmail() {
+        Map<String, String> values = Map.of("code", "123456");
+
+        measure("concatenation (html only)", () -> concatenate("123456"));
+        measure("template (subject + html + text)",
+                () -> emailTemplateService.render(EmailType.VERIFICATION, values));
+        measure("template (html only)",
+                () -> emailTemplateService.render(EmailType.VERIFICATION, values).htmlBody());
+    }
+
+    private static void measure(String name, Supplier<?> task) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += task.get().hashCode();
+        }
+
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += task.get().hashCode();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+
+        System.out.printf("%-35s %8.1f ns/op %8d B/op (%d)%n", name, (double) elapsed / ITERATIONS,
+                allocated / ITERATIONS, sink & 1);
+    }
+
+    private static String concatenate(String verificationCode) {
+        return "<html>"
+                + "<body style=\"font-family: Arial, sans-serif;\">"
+                + "<div style=\"background-color: #f5f5f5; padding: 20px;\">"
+                + "<h2 style=\"color: #333;\">Welcome to our app!</h2>"
+                + "<p style=\"font-size: 16px;\">Please enter the verification code below to continue:</p>"
+                + "<div style=\"background-color: #fff; padding: 20px; border-radius: 5px; box-shadow: 0 0 10px rgba(0,0,0,0.1);\">"
+                + "<h3 style=\"color: #333;\">Verification Code:</h3>"
+                + "<p style=\"font-size: 18px; font-weight: bold; color: #007bff;\">" + verificationCode + "</p>"
+                + "</div>"
+                + "</div>"
+                + "</body>"
+                + "</html>";
+    }
+}
@@ -0,0 +1,52 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.simon.code_lab.model.EmailType;
+import com.simon.code_lab.util.EmailTemplate;
+
+class EmailTemplateServiceTest {
+
+    private final EmailTemplateService emailTemplateService = new EmailTemplateService();
+
+    @Test
+    void render_shouldFillVerificationCode_inHtmlAndText() {
+        EmailTemplateService.RenderedEmail email = emailTemplateService.render(EmailType.VERIFICATION,
+                Map.of("code", "123456"));
+
+        assertEquals("Verify your account", email.subject());
+        assertTrue(email.htmlBody().contains(">123456</p>"));
+        assertTrue(email.textBody().contains("Verification Code: 123456"));
+    }
+
+    @Test
+    void render_shouldEscapeHtmlSlots_butNotTextOrSubject() {
+        EmailTemplateService.RenderedEmail email = emailTemplateService.render(EmailType.LIST_INVITE,
+                Map.of("username", "bob", "inviter", "alice", "list", "<b>Work & co</b>"));
+
+        assertEquals("alice shared \"<b>Work & co</b>\" with you", email.subject());
+        assertTrue(email.htmlBody().contains("&lt;b&gt;Work &amp; co&lt;/b&gt;"));
+        assertFalse(email.htmlBody().contains("<b>Work"));
+        assertTrue(email.textBody().contains("\"<b>Work & co</b>\""));
+    }
+
+    @Test
+    void render_shouldThrow_whenSlotValueIsMissing() {
+        assertThrows(IllegalArgumentException.class,
+                () -> emailTemplateService.render(EmailType.TASK_REMINDER, Map.of("task", "Write tests")));
+    }
+
+    @Test
+    void compile_shouldRejectUnknownSlots() {
+        assertThrows(IllegalArgumentException.class,
+                () -> EmailTemplate.compile("Hello {{name}}", false, Set.of("code")));
+    }
+}
@@ -0,0 +1,103 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.simon.code_lab.model.User;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0";
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET, 60_000, 100);
+
+        user = new User("testuser", "test@example.com", "password");
+        user.setId(1L);
+        user.setEnabled(true);
+        user.setTokenVersion(3L);
+    }
+
+    @Test
+    void extractUsername_shouldReturnSubject() {
+        String token = jwtService.generateToken(user);
+
+        assertEquals("testuser", jwtService.extractUsername(token));
+    }
+
+    @Test
+    void isTokenValid_shouldReturnTrue_whenCalledRepeatedlyForSameToken() {
+        String token = jwtService.generateToken(user);
+
+        assertTrue(jwtService.isTokenValid(token, user));
+        assertTrue(jwtService.isTokenValid(token, user));
+    }
+
+    @Test
+    void isTokenValid_shouldReturnFalse_whenTokenBelongsToAnotherUser() {
+        User otherUser = new User("otheruser", "other@example.com", "password");
+        String token = jwtService.generateToken(otherUser);
+
+        assertFalse(jwtService.isTokenValid(token, user));
+    }
+
+    @Test
+    void isTokenValid_shouldReturnFalse_whenTokenVersionWasBumped() {
+        String token = jwtService.generateToken(user);
+        user.setTokenVersion(4L);
+
+        assertFalse(jwtService.isTokenValid(token, user));
+    }
+
+    @Test
+    void extractUser_shouldBuildUserFromClaims() {
+        String token = jwtService.generateToken(user);
+
+        User fromClaims = jwtService.extractUser(token);
+
+        assertEquals(1L, fromClaims.getId());
+        assertEquals("testuser", fromClaims.getUsername());
+        assertEquals("test@example.com", fromClaims.getEmail());
+        assertTrue(fromClaims.isEnabled());
+        assertEquals(3L, fromClaims.getTokenVersion());
+    }
+
+    @Test
+    void extractUser_shouldReturnNull_whenTokenHasNoUserClaims() {
+        String token = jwtService.generateToken(new HashMap<>(), user);
+
+        assertNull(jwtService.extractUser(token));
+    }
+
+    @Test
+    void extractUsername_shouldThrow_whenSignatureIsTampered() {
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> jwtService.extractUsername(tampered));
+    }
+
+    @Test
+    void extractUsername_shouldThrow_whenTokenIsExpired() {
+        JwtService expiredTokens = new JwtService(SECRET, -1_000, 100);
+        String token = expiredTokens.generateToken(user);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.extractUsername(token));
+    }
+}
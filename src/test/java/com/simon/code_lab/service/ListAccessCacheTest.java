@@ -0,0 +1,94 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.simon.code_lab.repository.TodoListRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class ListAccessCacheTest {
+
+    @Mock
+    private TodoListRepository todoListRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ListAccessCache listAccessCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listAccessCache = new ListAccessCache(todoListRepository, meterRegistry, 1024 * 1024, 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void canAccess_shouldLoadOnce_thenAnswerFromMemory() {
+        when(todoListRepository.findIdsByMemberId(1L)).thenReturn(List.of(30L, 10L, 20L));
+
+        assertTrue(listAccessCache.canAccess(1L, 10L));
+        assertTrue(listAccessCache.canAccess(1L, 30L));
+        assertFalse(listAccessCache.canAccess(1L, 15L));
+
+        verify(todoListRepository, times(1)).findIdsByMemberId(1L);
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "list-access").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "list-access").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void grantAndRevoke_shouldUpdateCachedSetInPlace() {
+        when(todoListRepository.findIdsByMemberId(1L)).thenReturn(List.of(10L, 30L));
+        listAccessCache.canAccess(1L, 10L);
+
+        listAccessCache.grant(1L, 20L);
+        listAccessCache.revoke(1L, 10L);
+
+        assertTrue(listAccessCache.canAccess(1L, 20L));
+        assertFalse(listAccessCache.canAccess(1L, 10L));
+        assertTrue(listAccessCache.canAccess(1L, 30L));
+        verify(todoListRepository, times(1)).findIdsByMemberId(1L);
+    }
+
+    @Test
+    void revokeAll_shouldWaitForCommit_whenTransactionIsActive() {
+        when(todoListRepository.findIdsByMemberId(1L)).thenReturn(List.of(10L));
+        when(todoListRepository.findIdsByMemberId(2L)).thenReturn(List.of(10L, 20L));
+        listAccessCache.canAccess(1L, 10L);
+        listAccessCache.canAccess(2L, 10L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        listAccessCache.revokeAll(List.of(1L, 2L), 10L);
+
+        assertTrue(listAccessCache.canAccess(1L, 10L));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertFalse(listAccessCache.canAccess(1L, 10L));
+        assertFalse(listAccessCache.canAccess(2L, 10L));
+        assertTrue(listAccessCache.canAccess(2L, 20L));
+    }
+}
@@ -0,0 +1,105 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.simon.code_lab.exception.LoginThrottledException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoginExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginExecutor loginExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginExecutor = new LoginExecutor(meterRegistry, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loginExecutor.shutdown();
+    }
+
+    @Test
+    void submit_shouldRunTaskAndRecordDuration() throws Exception {
+        CompletableFuture<String> result = loginExecutor.submit("login", () -> "done");
+
+        assertEquals("done", result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("auth.password.duration").tag("operation", "login").timer().count());
+    }
+
+    @Test
+    void submit_shouldRejectImmediately_whenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> running = loginExecutor.submit("login", () -> {
+            started.countDown();
+            return await(release);
+        });
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Boolean> queued = loginExecutor.submit("login", () -> true);
+
+        CompletableFuture<Boolean> rejected = loginExecutor.submit("login", () -> true);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(LoginThrottledException.class, thrown.getCause());
+        assertEquals(1, meterRegistry.get("auth.login.queue.depth").gauge().value());
+        assertEquals(1, meterRegistry.get("auth.login.rejected").counter().count());
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void execute_shouldDropTheTask_whenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        assertTrue(loginExecutor.execute("rehash", () -> {
+            started.countDown();
+            await(release);
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        assertTrue(loginExecutor.execute("rehash", () -> { }));
+
+        assertFalse(loginExecutor.execute("rehash", () -> { }));
+        assertEquals(1, meterRegistry.get("auth.login.rejected").counter().count());
+
+        release.countDown();
+    }
+
+    @Test
+    void call_shouldWaitForTheHashAndRethrowItsFailure() {
+        assertEquals("hash", loginExecutor.call("signup", () -> "hash"));
+
+        assertThrows(IllegalStateException.class, () -> loginExecutor.call("signup", () -> {
+            throw new IllegalStateException("boom");
+        }));
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.simon.code_lab.exception.InvalidRefreshTokenException;
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.RefreshTokenRepository;
+import com.simon.code_lab.repository.UserRepository;
+import com.simon.code_lab.util.TokenDigest;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UnverifiedUserSweeper sweeper;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("refresher", "refresher@example.com", "password");
+        user.setEnabled(true);
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void issue_shouldStoreOnlyTheHash() {
+        String rawToken = refreshTokenService.issue(user);
+
+        assertTrue(refreshTokenRepository.findByTokenHashWithUser(TokenDigest.sha256(rawToken)).isPresent());
+        assertTrue(refreshTokenRepository.findAll().stream().noneMatch(t -> t.getTokenHash().equals(rawToken)));
+    }
+
+    @Test
+    void rotate_shouldReturnNewToken_forTheSameUser() {
+        String rawToken = refreshTokenService.issue(user);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(rawToken);
+
+        assertEquals(user.getId(), rotation.user().getId());
+        assertNotEquals(rawToken, rotation.refreshToken());
+    }
+
+    @Test
+    void rotate_shouldRevokeFamilyAndBumpTokenVersion_whenTokenIsReused() {
+        String rawToken = refreshTokenService.issue(user);
+        String rotated = refreshTokenService.rotate(rawToken).refreshToken();
+
+        InvalidRefreshTokenException reuse = assertThrows(InvalidRefreshTokenException.class,
+                () -> refreshTokenService.rotate(rawToken));
+
+        assertEquals("Refresh token reuse detected", reuse.getMessage());
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(rotated));
+        assertEquals(1L, userRepository.findTokenVersionById(user.getId()).orElseThrow());
+    }
+
+    @Test
+    void rotate_shouldRejectUnknownToken() {
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+    }
+
+    @Test
+    void sweeper_shouldDeleteExpiredRefreshTokens() {
+        refreshTokenService.issue(user);
+
+        sweeper.purgeExpiredRefreshTokens(LocalDateTime.now().plusYears(1));
+
+        assertEquals(0, refreshTokenRepository.count());
+    }
+}
@@ -0,0 +1,167 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simon.code_lab.dto.TaskImportEvent;
+import com.simon.code_lab.dto.request.CreateTaskRequest;
+import com.simon.code_lab.exception.AccessDeniedException;
+
+@ExtendWith(MockitoExtension.class)
+class TaskImportServiceTest {
+
+    @Mock
+    private TaskService taskService;
+
+    private TaskImportService taskImportService;
+
+    private final List<CreateTaskRequest> saved = new ArrayList<>();
+    private final List<TaskImportEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        taskImportService = new TaskImportService(taskService, new ObjectMapper());
+    }
+
+    @Test
+    void importTasks_shouldReportRejectedNdjsonRowsAndImportTheOthers() throws Exception {
+        recordSavedTasks();
+        String body = "{\"title\":\"Report\",\"description\":\"Friday\",\"completed\":true}\n"
+                + "\n"
+                + "{\"title\":\"\"}\n"
+                + "not json\n"
+                + "{\"title\":\"Slides\",\"completed\":\"yes\"}\r\n"
+                + "{\"title\":\"Slides\"}";
+
+        TaskImportEvent done = taskImportService.importTasks(10L, TaskImportService.Format.NDJSON,
+                new StringReader(body), events::add);
+
+        assertEquals(new TaskImportEvent("done", null, null, 5L, 2L, 3L), done);
+        assertEquals(List.of(3L, 4L, 5L), events.stream()
+                .filter(event -> event.type().equals("error")).map(TaskImportEvent::line).toList());
+        assertEquals(List.of("Report", "Slides"), saved.stream().map(CreateTaskRequest::getTitle).toList());
+        assertEquals(true, saved.get(0).isCompleted());
+        assertEquals(10L, saved.get(1).getListId());
+    }
+
+    @Test
+    void importTasks_shouldWriteOneChunkPerBatch() throws Exception {
+        recordSavedTasks();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < TaskService.MAX_BATCH_SIZE * 2 + 1; i++) {
+            body.append("{\"title\":\"Task ").append(i).append("\"}\n");
+        }
+
+        taskImportService.importTasks(10L, TaskImportService.Format.NDJSON, new StringReader(body.toString()),
+                events::add);
+
+        verify(taskService, times(3)).addTasks(anyList());
+        assertEquals(TaskService.MAX_BATCH_SIZE * 2 + 1, saved.size());
+        assertEquals(List.of("progress", "progress", "progress", "done"),
+                events.stream().map(TaskImportEvent::type).toList());
+    }
+
+    @Test
+    void importTasks_shouldParseQuotedCsvFields() throws Exception {
+        recordSavedTasks();
+        String body = "Title,Completed,Description\r\n"
+                + "\"Report, final\",true,\"Line one\nline \"\"two\"\"\"\r\n"
+                + "Slides,maybe,\r\n"
+                + "Call,,\r\n"
+                + "too,many,fields,here\r\n";
+
+        TaskImportEvent done = taskImportService.importTasks(10L, TaskImportService.Format.CSV,
+                new StringReader(body), events::add);
+
+        assertEquals(new TaskImportEvent("done", null, null, 4L, 2L, 2L), done);
+        assertEquals("Report, final", saved.get(0).getTitle());
+        assertEquals("Line one\nline \"two\"", saved.get(0).getDescription());
+        assertEquals(true, saved.get(0).isCompleted());
+        assertEquals("Call", saved.get(1).getTitle());
+        assertEquals(List.of(4L, 6L), events.stream()
+                .filter(event -> event.type().equals("error")).map(TaskImportEvent::line).toList());
+    }
+
+    @Test
+    void importTasks_shouldRejectAnOverlongCsvRecordAndGoOn() throws Exception {
+        recordSavedTasks();
+        String body = "title,description\n"
+                + "Report,\"" + "a,\n".repeat(TaskImportService.MAX_RECORD_LENGTH) + "\"\n"
+                + "Slides,\n";
+
+        TaskImportEvent done = taskImportService.importTasks(10L, TaskImportService.Format.CSV,
+                new StringReader(body), events::add);
+
+        assertEquals(new TaskImportEvent("done", null, null, 2L, 1L, 1L), done);
+        assertEquals(TaskImportEvent.rowError(2L, "Record exceeds " + TaskImportService.MAX_RECORD_LENGTH
+                + " characters"), events.get(0));
+        assertEquals(List.of("Slides"), saved.stream().map(CreateTaskRequest::getTitle).toList());
+    }
+
+    @Test
+    void importTasks_shouldAbortOnAnUnterminatedCsvQuote() throws Exception {
+        recordSavedTasks();
+        String body = "title\nReport\n\"Slides\n";
+
+        TaskImportEvent result = taskImportService.importTasks(10L, TaskImportService.Format.CSV,
+                new StringReader(body), events::add);
+
+        assertEquals("aborted", result.type());
+        assertEquals(1L, result.imported());
+        assertEquals(List.of("Report"), saved.stream().map(CreateTaskRequest::getTitle).toList());
+    }
+
+    @Test
+    void importTasks_shouldAbortCsvWithoutATitleColumn() throws Exception {
+        TaskImportEvent result = taskImportService.importTasks(10L, TaskImportService.Format.CSV,
+                new StringReader("name,description\nReport,\n"), events::add);
+
+        assertEquals(new TaskImportEvent("aborted", 1L, "CSV header must contain a title column", 0L, 0L, 0L),
+                result);
+        assertEquals(List.of(result), events);
+        verify(taskService, never()).addTasks(anyList());
+    }
+
+    @Test
+    void importTasks_shouldEndTheReportWithAbortedWhenAChunkFails() throws Exception {
+        doAnswer(invocation -> List.of())
+                .doThrow(new AccessDeniedException("User is not a member of this list"))
+                .when(taskService).addTasks(anyList());
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < TaskService.MAX_BATCH_SIZE * 2 + 1; i++) {
+            body.append("{\"title\":\"Task ").append(i).append("\"}\n");
+        }
+
+        TaskImportEvent result = taskImportService.importTasks(10L, TaskImportService.Format.NDJSON,
+                new StringReader(body.toString()), events::add);
+
+        assertEquals("aborted", result.type());
+        assertEquals("User is not a member of this list", result.message());
+        assertEquals((long) TaskService.MAX_BATCH_SIZE, result.imported());
+        verify(taskService, times(2)).addTasks(anyList());
+        assertEquals(List.of("progress", "aborted"), events.stream().map(TaskImportEvent::type).toList());
+    }
+
+    private void recordSavedTasks() {
+        doAnswer(invocation -> {
+            List<CreateTaskRequest> chunk = invocation.getArgument(0);
+            saved.addAll(chunk);
+            return List.of();
+        }).when(taskService).addTasks(anyList());
+    }
+}
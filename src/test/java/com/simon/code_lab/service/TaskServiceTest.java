@@ -2,14 +2,17 @@ package com.simon.code_lab.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -17,13 +20,20 @@ import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.simon.code_lab.config.PaginationProperties;
+import com.simon.code_lab.dto.CursorPage;
 import com.simon.code_lab.dto.TaskDto;
+import com.simon.code_lab.dto.TaskFilter;
+import com.simon.code_lab.dto.TaskSearchResultDto;
+import com.simon.code_lab.dto.projection.TaskRow;
+import com.simon.code_lab.dto.projection.TaskSearchRow;
+import com.simon.code_lab.dto.request.BatchUpdateTaskRequest;
+import com.simon.code_lab.dto.request.CreateTaskRequest;
 import com.simon.code_lab.exception.AccessDeniedException;
 import com.simon.code_lab.exception.TaskNotFoundException;
 import com.simon.code_lab.exception.TodoListNotFoundException;
@@ -31,34 +41,57 @@ import com.simon.code_lab.model.Task;
 import com.simon.code_lab.model.TodoList;
 import com.simon.code_lab.model.User;
 import com.simon.code_lab.repository.TaskRepository;
+import com.simon.code_lab.repository.TaskSearchRepository;
+import com.simon.code_lab.repository.TodoListChangeRepository;
 import com.simon.code_lab.repository.TodoListRepository;
 import com.simon.code_lab.repository.UserRepository;
+import com.simon.code_lab.util.CursorCodec;
 import com.simon.code_lab.util.SecurityUtil;
 
+import jakarta.persistence.EntityManager;
+
 @ExtendWith(MockitoExtension.class)
 class TaskServiceTest {
 
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskSearchRepository taskSearchRepository;
+
     @Mock
     private TodoListRepository todoListRepository;
 
+    @Mock
+    private TodoListChangeRepository todoListChangeRepository;
+
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ListAccessCache listAccessCache;
+
     private TaskService taskService;
 
     @Mock
     private static SecurityUtil securityUtilMock;
 
+    @Mock
+    private TaskToggleBuffer taskToggleBuffer;
+
     private User user;
     private TodoList todoList;
     private Task task1, task2;
 
     @BeforeEach
     void setUp() {
+        taskService = new TaskService(taskRepository, taskSearchRepository, todoListRepository, todoListChangeRepository,
+                new CurrentUserService(userRepository, entityManager), listAccessCache,
+                new PaginationProperties(100, 500, 50, 200, 20, 100), taskToggleBuffer);
+
         user = new User();
         user.setId(1L);
         user.setEmail("test@example.com");
@@ -91,7 +124,8 @@ class TaskServiceTest {
             utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
 
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
-            when(todoListRepository.findById(todoList.getId())).thenReturn(Optional.of(todoList));
+            when(listAccessCache.canAccess(user.getId(), todoList.getId())).thenReturn(true);
+            when(todoListRepository.getReferenceById(todoList.getId())).thenReturn(todoList);
 
             when(taskRepository.save(any(Task.class))).thenReturn(task1);
 
@@ -114,7 +148,7 @@ class TaskServiceTest {
             utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(otherUser.getUsername());
 
             when(userRepository.findByUsername(otherUser.getUsername())).thenReturn(Optional.of(otherUser));
-            when(todoListRepository.findById(todoList.getId())).thenReturn(Optional.of(todoList));
+            when(todoListRepository.existsById(todoList.getId())).thenReturn(true);
 
             AccessDeniedException thrown = assertThrows(AccessDeniedException.class,
                     () -> taskService.addTask(todoList.getId(), "Titre", "desc"));
@@ -130,7 +164,7 @@ class TaskServiceTest {
             utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
 
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
-            when(todoListRepository.findById(anyLong())).thenReturn(Optional.empty());
+            when(todoListRepository.existsById(anyLong())).thenReturn(false);
 
             TodoListNotFoundException exception = assertThrows(TodoListNotFoundException.class,
                     () -> taskService.addTask(999L, "Titre", "desc"));
@@ -146,14 +180,58 @@ class TaskServiceTest {
             utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
 
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
-            when(todoListRepository.findById(todoList.getId())).thenReturn(Optional.of(todoList));
-            when(taskRepository.findByTodoList(todoList)).thenReturn(List.of(task1, task2));
+            when(listAccessCache.canAccess(user.getId(), todoList.getId())).thenReturn(true);
+            when(taskRepository.findPage(todoList.getId(), TaskFilter.ALL, 0L, null, 101))
+                    .thenReturn(List.of(toRow(task1), toRow(task2)));
+
+            CursorPage<TaskDto> result = taskService.getTasksForList(todoList.getId(), TaskFilter.ALL, null, null);
+
+            assertEquals(2, result.items().size());
+            assertEquals("Task 1", result.items().get(0).getTitle());
+            assertNull(result.nextCursor());
+        }
+    }
+
+    @Test
+    void getTasksForList_shouldReturnNextCursor_whenMoreTasksRemain() {
+        try (MockedStatic<SecurityUtil> utilities = Mockito.mockStatic(SecurityUtil.class)) {
+            utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
+
+            when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+            when(listAccessCache.canAccess(user.getId(), todoList.getId())).thenReturn(true);
+            when(taskRepository.findPage(todoList.getId(), TaskFilter.ALL, 0L, null, 2))
+                    .thenReturn(List.of(toRow(task1), toRow(task2)));
+
+            CursorPage<TaskDto> result = taskService.getTasksForList(todoList.getId(), TaskFilter.ALL, null, 1);
+
+            assertEquals(1, result.items().size());
+            assertEquals(task1.getId(), CursorCodec.decode(result.nextCursor()));
+        }
+    }
+
+    @Test
+    void getTasksForList_shouldCarryTheTitleInTheCursor_whenSortedByTitle() {
+        TaskFilter filter = new TaskFilter(false, "Ta", TaskFilter.Sort.TITLE);
+        try (MockedStatic<SecurityUtil> utilities = Mockito.mockStatic(SecurityUtil.class)) {
+            utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
+
+            when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+            when(listAccessCache.canAccess(user.getId(), todoList.getId())).thenReturn(true);
+            when(taskRepository.findPage(todoList.getId(), filter, 0L, null, 2))
+                    .thenReturn(List.of(toRow(task1), toRow(task2)));
+
+            CursorPage<TaskDto> first = taskService.getTasksForList(todoList.getId(), filter, null, 1);
+
+            assertEquals(task1.getId(), CursorCodec.decode(first.nextCursor()));
+            assertEquals("task 1", CursorCodec.decodeSortKey(first.nextCursor()));
+
+            when(taskRepository.findPage(todoList.getId(), filter, task1.getId(), "task 1", 2))
+                    .thenReturn(List.of(toRow(task2)));
 
-            List<TaskDto> result = taskService.getTasksForList(todoList.getId());
+            CursorPage<TaskDto> second = taskService.getTasksForList(todoList.getId(), filter, first.nextCursor(), 1);
 
-            assertEquals(2, result.size());
-            assertEquals("Task 1", result.get(0).getTitle());
-            verify(taskRepository).findByTodoList(todoList);
+            assertEquals("Task 2", second.items().get(0).getTitle());
+            assertNull(second.nextCursor());
         }
     }
 
@@ -163,11 +241,11 @@ class TaskServiceTest {
             utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
 
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
-            when(todoListRepository.findById(999L)).thenReturn(Optional.empty());
+            when(todoListRepository.existsById(999L)).thenReturn(false);
 
-            assertThrows(TodoListNotFoundException.class, () -> taskService.getTasksForList(999L));
+            assertThrows(TodoListNotFoundException.class, () -> taskService.getTasksForList(999L, TaskFilter.ALL, null, null));
 
-            verify(taskRepository, never()).findByTodoList(any());
+            verify(taskRepository, never()).findPage(any(), any(), anyLong(), any(), anyInt());
         }
     }
 
@@ -183,11 +261,106 @@ class TaskServiceTest {
             utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
 
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
-            when(todoListRepository.findById(todoList.getId())).thenReturn(Optional.of(todoList));
+            when(todoListRepository.existsById(todoList.getId())).thenReturn(true);
+
+            assertThrows(AccessDeniedException.class, () -> taskService.getTasksForList(todoList.getId(), TaskFilter.ALL, null, null));
+
+            verify(taskRepository, never()).findPage(any(), any(), anyLong(), any(), anyInt());
+        }
+    }
+
+    @Test
+    void searchTasks_shouldCarryTheRankInTheCursor() {
+        try (MockedStatic<SecurityUtil> utilities = Mockito.mockStatic(SecurityUtil.class)) {
+            utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
+
+            when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+            when(taskSearchRepository.search(user.getId(), "report", null, 0L, 2)).thenReturn(List.of(
+                    new TaskSearchRow(todoList.getId(), 101L, "Report", "", false, 1.0f),
+                    new TaskSearchRow(todoList.getId(), 100L, "Slides", "report", false, 0.4f)));
+
+            CursorPage<TaskSearchResultDto> first = taskService.searchTasks("report", null, 1);
+
+            assertEquals(101L, first.items().get(0).getId());
+            assertEquals(todoList.getId(), first.items().get(0).getListId());
+
+            when(taskSearchRepository.search(user.getId(), "report", 1.0f, 101L, 2)).thenReturn(List.of(
+                    new TaskSearchRow(todoList.getId(), 100L, "Slides", "report", false, 0.4f)));
+
+            CursorPage<TaskSearchResultDto> second = taskService.searchTasks("report", first.nextCursor(), 1);
+
+            assertEquals(100L, second.items().get(0).getId());
+            assertNull(second.nextCursor());
+        }
+    }
+
+    @Test
+    void searchTasks_shouldRejectBlankQueries() {
+        assertThrows(IllegalArgumentException.class, () -> taskService.searchTasks(" ", null, null));
+
+        verify(taskSearchRepository, never()).search(any(), any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void addTasks_shouldCheckEachListOnceAndSaveAllTasks() {
+        try (MockedStatic<SecurityUtil> utilities = Mockito.mockStatic(SecurityUtil.class)) {
+            utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
+
+            when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+            when(listAccessCache.canAccess(user.getId(), todoList.getId())).thenReturn(true);
+            when(todoListRepository.getReferenceById(todoList.getId())).thenReturn(todoList);
+            when(taskRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+            List<TaskDto> result = taskService.addTasks(List.of(
+                    createRequest("Task A"), createRequest("Task B"), createRequest("Task C")));
+
+            assertEquals(3, result.size());
+            assertEquals("Task C", result.get(2).getTitle());
+            verify(listAccessCache).canAccess(user.getId(), todoList.getId());
+        }
+    }
+
+    @Test
+    void addTasks_shouldRejectOversizedBatches() {
+        List<CreateTaskRequest> requests = Collections.nCopies(TaskService.MAX_BATCH_SIZE + 1,
+                createRequest("Task"));
+
+        assertThrows(IllegalArgumentException.class, () -> taskService.addTasks(requests));
+
+        verify(taskRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void updateTasks_shouldThrowTaskNotFoundException_whenATaskIsMissing() {
+        BatchUpdateTaskRequest known = new BatchUpdateTaskRequest();
+        known.setId(task1.getId());
+        BatchUpdateTaskRequest missing = new BatchUpdateTaskRequest();
+        missing.setId(999L);
+
+        try (MockedStatic<SecurityUtil> utilities = Mockito.mockStatic(SecurityUtil.class)) {
+            utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
+
+            when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+            when(taskRepository.findAllById(List.of(task1.getId(), 999L))).thenReturn(List.of(task1));
 
-            assertThrows(AccessDeniedException.class, () -> taskService.getTasksForList(todoList.getId()));
+            assertThrows(TaskNotFoundException.class, () -> taskService.updateTasks(List.of(known, missing)));
+            assertEquals("Task 1", task1.getTitle());
+        }
+    }
 
-            verify(taskRepository, never()).findByTodoList(any());
+    @Test
+    void deleteTasks_shouldThrowAccessDeniedException_whenUserIsNotMember() {
+        try (MockedStatic<SecurityUtil> utilities = Mockito.mockStatic(SecurityUtil.class)) {
+            utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
+
+            when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+            when(taskRepository.findAllById(List.of(task1.getId(), task2.getId()))).thenReturn(List.of(task1, task2));
+            when(listAccessCache.canAccess(user.getId(), todoList.getId())).thenReturn(false);
+
+            assertThrows(AccessDeniedException.class,
+                    () -> taskService.deleteTasks(List.of(task1.getId(), task2.getId())));
+
+            verify(taskRepository, never()).deleteAllInBatch(any());
         }
     }
 
@@ -198,15 +371,16 @@ class TaskServiceTest {
 
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
             when(taskRepository.findById(task1.getId())).thenReturn(Optional.of(task1));
-            when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(listAccessCache.canAccess(user.getId(), todoList.getId())).thenReturn(true);
+            when(taskRepository.saveAndFlush(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-            TaskDto updated = taskService.updateTask(task1.getId(), "Nouveau titre", "Nouvelle description", true);
+            TaskDto updated = taskService.updateTask(task1.getId(), "Nouveau titre", "Nouvelle description", true, null);
 
             assertEquals("Nouveau titre", updated.getTitle());
             assertEquals("Nouvelle description", updated.getDescription());
             assertTrue(updated.isCompleted());
 
-            verify(taskRepository).save(task1);
+            verify(taskRepository).saveAndFlush(task1);
         }
     }
 
@@ -218,7 +392,7 @@ class TaskServiceTest {
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
             when(taskRepository.findById(999L)).thenReturn(Optional.empty());
 
-            assertThrows(TaskNotFoundException.class, () -> taskService.updateTask(999L, "Titre", "Desc", false));
+            assertThrows(TaskNotFoundException.class, () -> taskService.updateTask(999L, "Titre", "Desc", false, null));
 
             verify(taskRepository, never()).save(any());
         }
@@ -239,7 +413,7 @@ class TaskServiceTest {
             when(taskRepository.findById(task1.getId())).thenReturn(Optional.of(task1));
 
             assertThrows(AccessDeniedException.class,
-                    () -> taskService.updateTask(task1.getId(), "Titre", "Desc", false));
+                    () -> taskService.updateTask(task1.getId(), "Titre", "Desc", false, null));
 
             verify(taskRepository, never()).save(any());
         }
@@ -252,8 +426,9 @@ class TaskServiceTest {
 
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
             when(taskRepository.findById(task1.getId())).thenReturn(Optional.of(task1));
+            when(listAccessCache.canAccess(user.getId(), todoList.getId())).thenReturn(true);
 
-            taskService.deleteTask(task1.getId());
+            taskService.deleteTask(task1.getId(), null);
 
             verify(taskRepository).delete(task1);
         }
@@ -267,7 +442,7 @@ class TaskServiceTest {
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
             when(taskRepository.findById(999L)).thenReturn(Optional.empty());
 
-            assertThrows(TaskNotFoundException.class, () -> taskService.deleteTask(999L));
+            assertThrows(TaskNotFoundException.class, () -> taskService.deleteTask(999L, null));
 
             verify(taskRepository, never()).delete(any());
         }
@@ -287,9 +462,22 @@ class TaskServiceTest {
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
             when(taskRepository.findById(task1.getId())).thenReturn(Optional.of(task1));
 
-            assertThrows(AccessDeniedException.class, () -> taskService.deleteTask(task1.getId()));
+            assertThrows(AccessDeniedException.class, () -> taskService.deleteTask(task1.getId(), null));
 
             verify(taskRepository, never()).delete(any());
         }
     }
-}
\ No newline at end of file
+
+    private CreateTaskRequest createRequest(String title) {
+        CreateTaskRequest request = new CreateTaskRequest();
+        request.setListId(todoList.getId());
+        request.setTitle(title);
+        request.setDescription("");
+        return request;
+    }
+
+    private TaskRow toRow(Task task) {
+        return new TaskRow(todoList.getId(), task.getId(), task.getTitle(), task.getDescription(), task.isCompleted(),
+                task.getVersion());
+    }
+}
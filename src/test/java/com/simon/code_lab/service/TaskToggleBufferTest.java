@@ -0,0 +1,197 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.simon.code_lab.exception.AccessDeniedException;
+import com.simon.code_lab.exception.TaskNotFoundException;
+import com.simon.code_lab.model.Task;
+import com.simon.code_lab.model.TodoList;
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.TaskRepository;
+import com.simon.code_lab.repository.TodoListRepository;
+import com.simon.code_lab.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = "tasks.toggle-buffer.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskToggleBufferTest {
+
+    @Autowired
+    private TaskToggleBuffer buffer;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoListRepository todoListRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        buffer.flushAll();
+        taskRepository.deleteAll();
+        todoListRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void toggle_shouldCoalesceRepeatedTogglesIntoOneWrite() {
+        User owner = saveUser("toggler");
+        Task task = saveTask(saveList(owner));
+        double coalescedBefore = meterRegistry.counter("tasks.toggle-buffer.coalesced").count();
+        double flushedBefore = meterRegistry.counter("tasks.toggle-buffer.flushed").count();
+
+        for (int i = 0; i < 5; i++) {
+            buffer.toggle(task.getId(), owner.getId(), i % 2 == 0);
+        }
+
+        Task unchanged = taskRepository.findById(task.getId()).orElseThrow();
+        assertFalse(unchanged.isCompleted());
+        assertEquals(0, unchanged.getVersion());
+
+        buffer.flushAll();
+
+        Task written = taskRepository.findById(task.getId()).orElseThrow();
+        assertTrue(written.isCompleted());
+        assertEquals(1, written.getVersion());
+        assertEquals(4.0, meterRegistry.counter("tasks.toggle-buffer.coalesced").count() - coalescedBefore);
+        assertEquals(1.0, meterRegistry.counter("tasks.toggle-buffer.flushed").count() - flushedBefore);
+    }
+
+    @Test
+    void toggle_shouldCheckAccessBeforeBuffering() {
+        User owner = saveUser("owner");
+        User outsider = saveUser("outsider");
+        Task task = saveTask(saveList(owner));
+
+        assertThrows(AccessDeniedException.class, () -> buffer.toggle(task.getId(), outsider.getId(), true));
+        assertThrows(TaskNotFoundException.class, () -> buffer.toggle(task.getId() + 1000, owner.getId(), true));
+
+        buffer.flushAll();
+        assertFalse(taskRepository.findById(task.getId()).orElseThrow().isCompleted());
+    }
+
+    @Test
+    void flush_shouldPutTogglesBackWhenTheCallersTransactionRollsBack() {
+        User owner = saveUser("rollback");
+        TodoList list = saveList(owner);
+        Task task = saveTask(list);
+        buffer.toggle(task.getId(), owner.getId(), true);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            buffer.flushList(list.getId());
+            status.setRollbackOnly();
+        });
+        assertFalse(taskRepository.findById(task.getId()).orElseThrow().isCompleted());
+
+        buffer.flushTasks(List.of(task.getId()));
+        assertTrue(taskRepository.findById(task.getId()).orElseThrow().isCompleted());
+    }
+
+    @Test
+    void flush_shouldRefuseReadOnlyTransactions() {
+        User owner = saveUser("readonly");
+        TodoList list = saveList(owner);
+        Task task = saveTask(list);
+        buffer.toggle(task.getId(), owner.getId(), true);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        assertThrows(IllegalStateException.class,
+                () -> readOnly.executeWithoutResult(status -> buffer.flushMember(owner.getId())));
+    }
+
+    @Test
+    void patchTask_shouldReadItsOwnBufferedToggles() throws Exception {
+        User owner = saveUser("reader");
+        TodoList list = saveList(owner);
+        Task task = saveTask(list);
+        String token = jwtService.generateToken(owner);
+
+        mockMvc.perform(patch("/tasks/" + task.getId())
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"completed\":true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true));
+        assertFalse(taskRepository.findById(task.getId()).orElseThrow().isCompleted());
+
+        mockMvc.perform(get("/todolists/" + list.getId()).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[0].completed").value(true))
+                .andExpect(jsonPath("$.tasks[0].version").value(1));
+    }
+
+    @Test
+    void exportTasks_shouldExportBufferedToggles() throws Exception {
+        User owner = saveUser("exporter");
+        TodoList list = saveList(owner);
+        Task task = saveTask(list);
+        buffer.toggle(task.getId(), owner.getId(), true);
+
+        mockMvc.perform(get("/todolists/" + list.getId() + "/export")
+                .header("Authorization", "Bearer " + jwtService.generateToken(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].completed").value(true));
+    }
+
+    private User saveUser(String username) {
+        User user = new User(username, username + "@example.com", "password");
+        user.setEnabled(true);
+        return userRepository.save(user);
+    }
+
+    private TodoList saveList(User owner) {
+        TodoList list = new TodoList();
+        list.setTitle("List");
+        list.setOwner(owner);
+        list.getMembers().add(owner);
+        return todoListRepository.save(list);
+    }
+
+    private Task saveTask(TodoList list) {
+        Task task = new Task();
+        task.setTitle("Task");
+        task.setTodoList(list);
+        return taskRepository.save(task);
+    }
+}
@@ -0,0 +1,95 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.simon.code_lab.dto.projection.ListVersionRow;
+import com.simon.code_lab.model.TodoList;
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.TodoListChangeRepository;
+import com.simon.code_lab.repository.TodoListRepository;
+import com.simon.code_lab.repository.UserRepository;
+
+@SpringBootTest(properties = "todolists.changes.compact.batch-size=1")
+@ActiveProfiles("test")
+class TodoListChangeCompactorTest {
+
+    @Autowired
+    private TodoListChangeCompactor compactor;
+
+    @Autowired
+    private TodoListChangeRepository todoListChangeRepository;
+
+    @Autowired
+    private TodoListRepository todoListRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        todoListChangeRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        todoListChangeRepository.deleteAll();
+        todoListRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void compact_shouldFoldEachListIntoOneRowWithAFreshTag() {
+        User owner = new User("compacted", "compacted@example.com", "password");
+        owner.setEnabled(true);
+        userRepository.save(owner);
+        List<TodoList> lists = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TodoList list = new TodoList();
+            list.setTitle("List " + i);
+            list.setOwner(owner);
+            lists.add(todoListRepository.save(list));
+        }
+        TodoList busy = lists.get(0);
+        TodoList other = lists.get(1);
+        TodoList quiet = lists.get(2);
+        for (int i = 0; i < 3; i++) {
+            record(busy);
+            record(other);
+        }
+        record(quiet);
+        ListVersionRow busyBefore = todoListRepository.findVersionById(busy.getId()).orElseThrow();
+        ListVersionRow quietBefore = todoListRepository.findVersionById(quiet.getId()).orElseThrow();
+
+        compactor.compact();
+
+        ListVersionRow busyAfter = todoListRepository.findVersionById(busy.getId()).orElseThrow();
+        assertEquals(3, busyBefore.changes());
+        assertEquals(1, busyAfter.changes());
+        assertTrue(busyAfter.lastChange() > busyBefore.lastChange());
+        assertEquals(1, todoListRepository.findVersionById(other.getId()).orElseThrow().changes());
+        assertEquals(quietBefore, todoListRepository.findVersionById(quiet.getId()).orElseThrow());
+
+        record(busy);
+        assertNotEquals(busyAfter.tag(), todoListRepository.findVersionById(busy.getId()).orElseThrow().tag());
+    }
+
+    private void record(TodoList list) {
+        transactionTemplate.executeWithoutResult(status -> todoListChangeRepository.record(List.of(list.getId())));
+    }
+}
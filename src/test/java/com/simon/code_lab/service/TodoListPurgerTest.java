@@ -0,0 +1,112 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.simon.code_lab.model.Task;
+import com.simon.code_lab.model.TodoList;
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.TaskRepository;
+import com.simon.code_lab.repository.TodoListRepository;
+import com.simon.code_lab.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = {
+        "todolists.delete.sync-max-tasks=3",
+        "todolists.purge.batch-size=2"
+})
+@ActiveProfiles("test")
+class TodoListPurgerTest {
+
+    @Autowired
+    private TodoListPurger purger;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoListRepository todoListRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        purger.purge();
+        taskRepository.deleteAll();
+        todoListRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void delete_shouldRemoveSmallListsAtOnce() {
+        User owner = saveUser("small");
+        TodoList list = saveList(owner, 3);
+
+        assertEquals(Boolean.TRUE, transactionTemplate.execute(status -> purger.delete(list.getId())));
+
+        assertEquals(0, taskRepository.countByTodoListId(list.getId()));
+        assertTrue(todoListRepository.findDeletedIds(PageRequest.of(0, 10)).isEmpty());
+        assertTrue(todoListRepository.findById(list.getId()).isEmpty());
+    }
+
+    @Test
+    void delete_shouldHideLargeListsUntilThePurgeRemovesTheirTasks() {
+        User owner = saveUser("large");
+        TodoList list = saveList(owner, 5);
+        TodoList kept = saveList(owner, 1);
+        double tasksBefore = meterRegistry.counter("todolists.purge.tasks.deleted").count();
+
+        assertEquals(Boolean.FALSE, transactionTemplate.execute(status -> purger.delete(list.getId())));
+
+        assertTrue(todoListRepository.findById(list.getId()).isEmpty());
+        assertEquals(List.of(kept.getId()), todoListRepository.findByMember(owner).stream().map(TodoList::getId).toList());
+        assertEquals(List.of(list.getId()), todoListRepository.findDeletedIds(PageRequest.of(0, 10)));
+        assertEquals(5, taskRepository.countByTodoListId(list.getId()));
+
+        purger.purge();
+
+        assertEquals(0, taskRepository.countByTodoListId(list.getId()));
+        assertEquals(1, taskRepository.countByTodoListId(kept.getId()));
+        assertTrue(todoListRepository.findDeletedIds(PageRequest.of(0, 10)).isEmpty());
+        assertEquals(5.0, meterRegistry.counter("todolists.purge.tasks.deleted").count() - tasksBefore);
+    }
+
+    private User saveUser(String username) {
+        User user = new User(username, username + "@example.com", "password");
+        user.setEnabled(true);
+        return userRepository.save(user);
+    }
+
+    private TodoList saveList(User owner, int taskCount) {
+        TodoList list = new TodoList();
+        list.setTitle("List");
+        list.setOwner(owner);
+        list.getMembers().add(owner);
+        todoListRepository.save(list);
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            task.setTodoList(list);
+            taskRepository.save(task);
+        }
+        return list;
+    }
+}
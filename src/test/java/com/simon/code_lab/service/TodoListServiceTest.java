@@ -3,9 +3,11 @@ package com.simon.code_lab.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -18,33 +20,54 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import com.simon.code_lab.config.PaginationProperties;
+import com.simon.code_lab.dto.CursorPage;
 import com.simon.code_lab.dto.TodoListDto;
+import com.simon.code_lab.dto.projection.MemberRow;
+import com.simon.code_lab.dto.projection.TodoListRow;
 import com.simon.code_lab.exception.AccessDeniedException;
 import com.simon.code_lab.exception.TodoListNotFoundException;
 import com.simon.code_lab.exception.UserNotFoundException;
 import com.simon.code_lab.model.TodoList;
 import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.TodoListChangeRepository;
 import com.simon.code_lab.repository.TodoListRepository;
 import com.simon.code_lab.repository.UserRepository;
 import com.simon.code_lab.util.SecurityUtil;
 
+import jakarta.persistence.EntityManager;
+
 @ExtendWith(MockitoExtension.class)
 class TodoListServiceTest {
 
     @Mock
     private TodoListRepository todoListRepository;
 
+    @Mock
+    private TodoListChangeRepository todoListChangeRepository;
+
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ListAccessCache listAccessCache;
+
+    @Mock
+    private TodoListPurger todoListPurger;
+
+    @Mock
+    private TaskToggleBuffer taskToggleBuffer;
+
     private TodoListService todoListService;
 
     private User user, newMember, notOwner;
@@ -52,6 +75,10 @@ class TodoListServiceTest {
 
     @BeforeEach
     void setUp() {
+        todoListService = new TodoListService(todoListRepository, todoListChangeRepository, userRepository,
+                new CurrentUserService(userRepository, entityManager), listAccessCache,
+                new PaginationProperties(100, 500, 50, 200, 20, 100), todoListPurger, taskToggleBuffer);
+
         user = new User();
         user.setId(1L);
         user.setUsername("username");
@@ -122,12 +149,20 @@ class TodoListServiceTest {
             utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
 
-            List<TodoList> lists = List.of(list1, list2);
-            when(todoListRepository.findByMember(user)).thenReturn(lists);
+            when(todoListRepository.findRowsByMemberId(user.getId(), 0L, PageRequest.ofSize(51))).thenReturn(List.of(
+                    new TodoListRow(list1.getId(), list1.getTitle(), user.getId(), user.getUsername(), user.getEmail(), 0),
+                    new TodoListRow(list2.getId(), list2.getTitle(), user.getId(), user.getUsername(), user.getEmail(), 0)));
+            when(todoListRepository.findMemberRowsByListIds(List.of(list1.getId(), list2.getId()))).thenReturn(List.of(
+                    new MemberRow(list1.getId(), user.getId(), user.getUsername(), user.getEmail())));
 
-            List<TodoListDto> result = todoListService.getTodoListsForCurrentUser();
+            CursorPage<TodoListDto> page = todoListService.getTodoListsForCurrentUser(null, null);
+            List<TodoListDto> result = page.items();
 
+            assertNull(page.nextCursor());
             assertEquals(2, result.size());
+            assertEquals(1, result.get(0).getMembers().size());
+            assertNull(result.get(0).getTasks());
+            verify(todoListRepository, never()).findTaskRowsByListIds(any());
             assertTrue(result.stream()
                     .anyMatch(dto -> dto.getId().equals(list1.getId()) && dto.getTitle().equals(list1.getTitle())));
             assertTrue(result.stream()
@@ -141,8 +176,8 @@ class TodoListServiceTest {
             utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn("unknown");
             when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
 
-            assertThrows(UsernameNotFoundException.class, () -> todoListService.getTodoListsForCurrentUser());
-            verify(todoListRepository, never()).findByMember(any());
+            assertThrows(UsernameNotFoundException.class, () -> todoListService.getTodoListsForCurrentUser(null, null));
+            verify(todoListRepository, never()).findRowsByMemberId(any(), anyLong(), any());
         }
     }
 
@@ -152,6 +187,7 @@ class TodoListServiceTest {
             utilities.when(SecurityUtil::getAuthenticatedUsername).thenReturn(user.getUsername());
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
             when(todoListRepository.findById(list1.getId())).thenReturn(Optional.of(list1));
+            when(listAccessCache.canAccess(user.getId(), list1.getId())).thenReturn(true);
 
             TodoListDto result = todoListService.getTodoListById(list1.getId());
 
@@ -202,12 +238,14 @@ class TodoListServiceTest {
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
             when(todoListRepository.findById(list1.getId())).thenReturn(Optional.of(list1));
             when(userRepository.findByEmail(newMember.getEmail())).thenReturn(Optional.of(newMember));
-            when(todoListRepository.save(any(TodoList.class))).thenAnswer(i -> i.getArguments()[0]);
+            when(todoListRepository.findRowById(list1.getId())).thenReturn(Optional.of(row(list1)));
 
             TodoListDto result = todoListService.addMember(list1.getId(), newMember.getEmail());
 
             assertNotNull(result);
-            assertTrue(list1.getMembers().contains(newMember));
+            verify(todoListRepository).insertMembership(list1.getId(), newMember.getId());
+            verify(todoListChangeRepository).record(List.of(list1.getId()));
+            verify(listAccessCache).grant(newMember.getId(), list1.getId());
             assertEquals(list1.getId(), result.getId());
         }
     }
@@ -251,6 +289,7 @@ class TodoListServiceTest {
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
             when(todoListRepository.findById(list1.getId())).thenReturn(Optional.of(list1));
             when(userRepository.findByEmail(newMember.getEmail())).thenReturn(Optional.of(newMember));
+            when(todoListRepository.existsByIdAndMembersId(list1.getId(), newMember.getId())).thenReturn(true);
 
             RuntimeException exception = assertThrows(RuntimeException.class,
                     () -> todoListService.addMember(list1.getId(), newMember.getEmail()));
@@ -267,12 +306,15 @@ class TodoListServiceTest {
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
             when(todoListRepository.findById(list2.getId())).thenReturn(Optional.of(list2));
             when(userRepository.findByEmail(newMember.getEmail())).thenReturn(Optional.of(newMember));
-            when(todoListRepository.save(any(TodoList.class))).thenAnswer(i -> i.getArguments()[0]);
+            when(todoListRepository.existsByIdAndMembersId(list2.getId(), newMember.getId())).thenReturn(true);
+            when(todoListRepository.findRowById(list2.getId())).thenReturn(Optional.of(row(list2)));
 
             TodoListDto result = todoListService.removeMember(list2.getId(), newMember.getEmail());
 
             assertNotNull(result);
-            assertFalse(list2.getMembers().contains(newMember));
+            verify(todoListRepository).deleteMembership(list2.getId(), newMember.getId());
+            verify(todoListChangeRepository).record(List.of(list2.getId()));
+            verify(listAccessCache).revoke(newMember.getId(), list2.getId());
             assertEquals(list2.getId(), result.getId());
         }
     }
@@ -334,6 +376,7 @@ class TodoListServiceTest {
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
             when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
             when(todoListRepository.findById(list1.getId())).thenReturn(Optional.of(list1));
+            when(todoListRepository.existsByIdAndMembersId(list1.getId(), user.getId())).thenReturn(true);
 
             AccessDeniedException exception = assertThrows(AccessDeniedException.class,
                 () -> todoListService.removeMember(list1.getId(), user.getEmail()));
@@ -349,11 +392,12 @@ class TodoListServiceTest {
 
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
             when(todoListRepository.findById(list1.getId())).thenReturn(Optional.of(list1));
-            when(todoListRepository.save(any(TodoList.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(listAccessCache.canAccess(user.getId(), list1.getId())).thenReturn(true);
+            when(todoListRepository.saveAndFlush(any(TodoList.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
             String newTitle = "New Title";
 
-            TodoListDto result = todoListService.updateTitle(list1.getId(), newTitle);
+            TodoListDto result = todoListService.updateTitle(list1.getId(), newTitle, null);
 
             assertNotNull(result);
             assertEquals(newTitle, list1.getTitle());
@@ -368,9 +412,10 @@ class TodoListServiceTest {
 
             when(userRepository.findByUsername(newMember.getUsername())).thenReturn(Optional.of(newMember));
             when(todoListRepository.findById(list2.getId())).thenReturn(Optional.of(list2));
+            when(listAccessCache.canAccess(newMember.getId(), list2.getId())).thenReturn(true);
 
             AccessDeniedException exception = assertThrows(AccessDeniedException.class,
-                () -> todoListService.updateTitle(list2.getId(), "New Title"));
+                () -> todoListService.updateTitle(list2.getId(), "New Title", null));
 
             assertEquals("Only the owner can update the title", exception.getMessage());
         }
@@ -385,7 +430,7 @@ class TodoListServiceTest {
             when(todoListRepository.findById(list1.getId())).thenReturn(Optional.empty());
 
             assertThrows(TodoListNotFoundException.class,
-                () -> todoListService.updateTitle(list1.getId(), "New Title"));
+                () -> todoListService.updateTitle(list1.getId(), "New Title", null));
         }
     }
 
@@ -396,10 +441,12 @@ class TodoListServiceTest {
 
             when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
             when(todoListRepository.findById(list1.getId())).thenReturn(Optional.of(list1));
+            when(todoListRepository.findMemberIdsByListId(list1.getId())).thenReturn(List.of(user.getId()));
 
-            todoListService.deleteTodoList(list1.getId());
+            todoListService.deleteTodoList(list1.getId(), null);
 
-            verify(todoListRepository, times(1)).delete(list1);
+            verify(todoListPurger, times(1)).delete(list1.getId());
+            verify(listAccessCache).revokeAll(List.of(user.getId()), list1.getId());
         }
     }
 
@@ -412,11 +459,11 @@ class TodoListServiceTest {
             when(todoListRepository.findById(list1.getId())).thenReturn(Optional.of(list1));
 
             AccessDeniedException exception = assertThrows(AccessDeniedException.class,
-                () -> todoListService.deleteTodoList(list1.getId()));
+                () -> todoListService.deleteTodoList(list1.getId(), null));
 
             assertEquals("Only the owner can delete the list", exception.getMessage());
 
-            verify(todoListRepository, never()).delete(any());
+            verify(todoListPurger, never()).delete(any());
         }
     }
 
@@ -429,9 +476,15 @@ class TodoListServiceTest {
             when(todoListRepository.findById(list1.getId())).thenReturn(Optional.empty());
 
             assertThrows(TodoListNotFoundException.class,
-                () -> todoListService.deleteTodoList(list1.getId()));
+                () -> todoListService.deleteTodoList(list1.getId(), null));
 
-            verify(todoListRepository, never()).delete(any());
+            verify(todoListPurger, never()).delete(any());
         }
     }
+
+    private static TodoListRow row(TodoList list) {
+        User owner = list.getOwner();
+        return new TodoListRow(list.getId(), list.getTitle(), owner.getId(), owner.getUsername(), owner.getEmail(),
+                list.getVersion());
+    }
 }
@@ -0,0 +1,60 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.simon.code_lab.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private TokenVersionService tokenVersionService;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionService = new TokenVersionService(userRepository, 60_000, 100);
+    }
+
+    @Test
+    void isCurrent_shouldOnlyQueryDatabaseOnce_whenVersionIsUnchanged() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0L));
+
+        assertTrue(tokenVersionService.isCurrent(1L, 0L));
+        assertTrue(tokenVersionService.isCurrent(1L, 0L));
+        assertTrue(tokenVersionService.isCurrent(1L, 0L));
+
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void isCurrent_shouldReturnFalse_whenTokensWereRevoked() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0L), Optional.of(1L));
+
+        assertTrue(tokenVersionService.isCurrent(1L, 0L));
+        tokenVersionService.revokeTokens(1L);
+
+        assertFalse(tokenVersionService.isCurrent(1L, 0L));
+        verify(userRepository).incrementTokenVersion(1L);
+    }
+
+    @Test
+    void isCurrent_shouldReturnFalse_whenUserNoLongerExists() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(tokenVersionService.isCurrent(1L, 0L));
+    }
+}
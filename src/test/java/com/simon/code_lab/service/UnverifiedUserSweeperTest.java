@@ -0,0 +1,85 @@
+package com.simon.code_lab.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.simon.code_lab.model.TodoList;
+import com.simon.code_lab.model.User;
+import com.simon.code_lab.repository.TodoListRepository;
+import com.simon.code_lab.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = "users.sweeper.batch-size=2")
+@ActiveProfiles("test")
+class UnverifiedUserSweeperTest {
+
+    @Autowired
+    private UnverifiedUserSweeper sweeper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoListRepository todoListRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        todoListRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void sweep_shouldClearExpiredCodes_andPurgeStaleUnverifiedUsers() {
+        User owner = save("owner", true, null, null);
+        User expiredCode = save("expired", false, "111111", LocalDateTime.now().minusHours(1));
+        User fresh = save("fresh", false, "222222", LocalDateTime.now().plusMinutes(10));
+        User stale1 = save("stale1", false, "333333", LocalDateTime.now().minusDays(8));
+        User stale2 = save("stale2", false, null, LocalDateTime.now().minusDays(9));
+        User stale3 = save("stale3", false, null, LocalDateTime.now().minusDays(10));
+
+        TodoList list = new TodoList();
+        list.setTitle("Shared");
+        list.setOwner(owner);
+        list.getMembers().add(owner);
+        list.getMembers().add(stale1);
+        todoListRepository.save(list);
+
+        double purgedBefore = meterRegistry.counter("users.sweeper.users.purged").count();
+
+        sweeper.sweep();
+
+        User cleared = userRepository.findById(expiredCode.getId()).orElseThrow();
+        assertNull(cleared.getVerificationCode());
+        assertNotNull(cleared.getVerificationExpiration());
+        assertEquals("222222", userRepository.findById(fresh.getId()).orElseThrow().getVerificationCode());
+        assertTrue(userRepository.findById(owner.getId()).isPresent());
+        assertFalse(userRepository.findById(stale1.getId()).isPresent());
+        assertFalse(userRepository.findById(stale2.getId()).isPresent());
+        assertFalse(userRepository.findById(stale3.getId()).isPresent());
+        assertEquals(1, todoListRepository.findByMember(owner).size());
+        assertEquals(3.0, meterRegistry.counter("users.sweeper.users.purged").count() - purgedBefore);
+    }
+
+    private User save(String username, boolean enabled, String code, LocalDateTime expiration) {
+        User user = new User(username, username + "@example.com", "password");
+        user.setEnabled(enabled);
+        user.setVerificationCode(code);
+        user.setVerificationExpiration(expiration);
+        return userRepository.save(user);
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import com.simon.code_lab.dto.TaskDto;
+import com.simon.code_lab.dto.TaskFilter;
 import com.simon.code_lab.dto.TodoListDto;
 import com.simon.code_lab.model.User;
 import com.simon.code_lab.repository.TaskRepository;
@@ -77,17 +78,17 @@ public class TaskSteps {
 
     @When("they retrieve all tasks for the todo list")
     public void they_retrieve_all_tasks_for_the_todo_list() {
-        taskList = taskService.getTasksForList(createdList.getId());
+        taskList = taskService.getTasksForList(createdList.getId(), TaskFilter.ALL, null, null).items();
     }
 
     @When("they update the task title to {string}, description to {string}, and mark it completed")
     public void they_update_the_task(String newTitle, String newDescription) {
-        createdTask = taskService.updateTask(createdTask.getId(), newTitle, newDescription, true);
+        createdTask = taskService.updateTask(createdTask.getId(), newTitle, newDescription, true, null);
     }
 
     @When("they delete the task")
     public void they_delete_the_task() {
-        taskService.deleteTask(createdTask.getId());
+        taskService.deleteTask(createdTask.getId(), null);
     }
 
     @Given("current user is switched to {string}")
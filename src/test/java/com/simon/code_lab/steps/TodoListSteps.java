@@ -84,12 +84,12 @@ public class TodoListSteps {
 
     @When("they update the todo list title to {string}")
     public void they_update_the_todo_list_title_to(String newTitle) {
-        createdList = todoListService.updateTitle(createdList.getId(), newTitle);
+        createdList = todoListService.updateTitle(createdList.getId(), newTitle, null);
     }
 
     @When("they delete the todo list")
     public void they_delete_the_todo_list() {
-        todoListService.deleteTodoList(createdList.getId());
+        todoListService.deleteTodoList(createdList.getId(), null);
         createdList = null;
     }
 
@@ -97,7 +97,7 @@ public class TodoListSteps {
     public void they_try_to_delete_the_todo_list() {
         caughtException = assertThrows(
                 AccessDeniedException.class,
-                () -> todoListService.deleteTodoList(createdList.getId()));
+                () -> todoListService.deleteTodoList(createdList.getId(), null));
     }
 
     @Then("the todo list {string} is created for this user")